@@ -0,0 +1,77 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read, write and lock results, one operation per report, and the word padding applied
+ * to tag data by setMode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessResultBenchmark {
+
+    static final int REPORTS = 1024;
+
+    // One in failEvery reports is an error, 0 for none
+    @Param({"0", "10"})
+    int failEvery;
+
+    TagRead[] readReports;
+    TagRead[] writeReports;
+    TagRead[] lockReports;
+    String[] tagData;
+    final AccessResult accessResult = new AccessResult();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        readReports = Reads.access(TagRead.OP_READ, REPORTS, failEvery, random);
+        writeReports = Reads.access(TagRead.OP_WRITE, REPORTS, failEvery, random);
+        lockReports = Reads.access(TagRead.OP_LOCK, REPORTS, failEvery, random);
+        tagData = new String[REPORTS];
+        for (int i = 0; i < REPORTS; i++) {
+            tagData[i] = readReports[i].tagId.substring(0, 1 + i % 24);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void read(Blackhole blackhole) {
+        for (TagRead report : readReports) {
+            // Read length not a whole number of words, so results are trimmed
+            blackhole.consume(accessResult.read(report, 2));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void write(Blackhole blackhole) {
+        for (TagRead report : writeReports) {
+            blackhole.consume(accessResult.write(report));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void lock(Blackhole blackhole) {
+        for (TagRead report : lockReports) {
+            blackhole.consume(accessResult.lock(report));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void padTagData(Blackhole blackhole) {
+        for (String data : tagData) {
+            blackhole.consume(WordPadding.pad(data));
+        }
+    }
+}
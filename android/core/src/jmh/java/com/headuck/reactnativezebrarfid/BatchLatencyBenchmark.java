@@ -0,0 +1,64 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build one batch from a fetch of reads, as the drain loop does per getReadTagsEx.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchLatencyBenchmark {
+
+    @Param({"100", "1000"})
+    int fetchSize;
+
+    TagRead[] reads;
+    final TagBatchEncoder encoder = new TagBatchEncoder();
+    final InventoryTally tally = new InventoryTally();
+
+    @Setup
+    public void setUp() {
+        reads = Reads.inventory(2000, fetchSize, new Random(1));
+    }
+
+    @Benchmark
+    public int binaryBatch() {
+        long now = System.currentTimeMillis();
+        encoder.begin(Reads.READER, TagBatchEncoder.FIELD_RSSI | TagBatchEncoder.FIELD_TIME, now);
+        for (TagRead read : reads) {
+            encoder.add(read.tagId, read.rssi, read.antenna, now);
+        }
+        return encoder.finish();
+    }
+
+    @Benchmark
+    public ArrayList<String> stringBatch() {
+        ArrayList<String> batch = new ArrayList<>(reads.length);
+        for (TagRead read : reads) {
+            batch.add(read.tagId);
+        }
+        return batch;
+    }
+
+    @Benchmark
+    public void uniqueStringBatch(Blackhole blackhole) {
+        tally.clear();
+        ArrayList<String> batch = new ArrayList<>(reads.length);
+        long now = System.currentTimeMillis();
+        for (TagRead read : reads) {
+            if (tally.record(read.tagId, now)) {
+                batch.add(read.tagId);
+            }
+        }
+        blackhole.consume(batch);
+    }
+}
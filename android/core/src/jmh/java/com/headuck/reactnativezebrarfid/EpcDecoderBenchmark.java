@@ -0,0 +1,63 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding SGTIN-96 IDs and counting them per GTIN, as aggregate mode does for each new tag.
+ * Run with -prof gc to check that neither allocates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EpcDecoderBenchmark {
+
+    static final int IDS = 1024;
+
+    // Distinct GTINs among the IDs
+    @Param({"10", "1000"})
+    int products;
+
+    String[] ids;
+    final EpcDecoder decoder = new EpcDecoder();
+    final GroupCounter counter = new GroupCounter();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        ids = new String[IDS];
+        for (int i = 0; i < IDS; i++) {
+            // Header 0x30, filter 1, partition 5: 7 digit company prefix, 6 digit item reference
+            long companyPrefix = 614141;
+            long itemReference = random.nextInt(products);
+            long serial = random.nextInt(1 << 30);
+            long high = (0x30L << 56) | (1L << 53) | (5L << 50) | (companyPrefix << 26) | (itemReference << 6) | (serial >>> 32);
+            ids[i] = String.format("%016X%08X", high, serial & 0xFFFFFFFFL);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IDS)
+    public void decode(Blackhole blackhole) {
+        for (String id : ids) {
+            blackhole.consume(decoder.decode(id));
+            blackhole.consume(decoder.serial);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IDS)
+    public void decodeAndGroup() {
+        for (String id : ids) {
+            if (decoder.decode(id)) {
+                counter.increment(decoder.groupKey(EpcDecoder.GROUP_CLASS));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventory results through the pipeline stages, one operation per tag read.
+ *
+ * Reads are drawn from a population with repeats, as the reader reports them. Run with
+ * -prof gc for allocations per tag.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryBenchmark {
+
+    static final int READS = 4096;
+
+    @Param({"500", "5000"})
+    int population;
+
+    TagRead[] reads;
+    InventoryTally tally;
+    TagBatchEncoder encoder;
+    TagBatcher batcher;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        reads = Reads.inventory(population, READS, new Random(1));
+        tally = new InventoryTally();
+        encoder = new TagBatchEncoder();
+        // Size based flushing only, so the batcher never needs the scheduler
+        batcher = new TagBatcher(null, new TagBatcher.Listener() {
+            @Override
+            public void onBatch(String reader, ArrayList<String> tags, long since) {
+                blackhole.consume(tags);
+            }
+        });
+        batcher.configure(0, 256);
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        tally.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public int uniqueFilter() {
+        int firstSeen = 0;
+        long now = System.currentTimeMillis();
+        for (TagRead read : reads) {
+            if (tally.record(read.tagId, now)) firstSeen++;
+        }
+        return firstSeen;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public int metadataTally() {
+        int firstSeen = 0;
+        long now = System.currentTimeMillis();
+        for (TagRead read : reads) {
+            if (tally.record(read.tagId, now, read.rssi, read.antenna, read.phase, read.seenCount)) firstSeen++;
+        }
+        return firstSeen;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public void binaryBatches(Blackhole blackhole) {
+        long now = System.currentTimeMillis();
+        int fields = TagBatchEncoder.FIELD_RSSI | TagBatchEncoder.FIELD_ANTENNA | TagBatchEncoder.FIELD_TIME;
+        encoder.begin(Reads.READER, fields, now);
+        for (TagRead read : reads) {
+            if (encoder.isFull()) {
+                blackhole.consume(encoder.finish());
+                encoder.begin(Reads.READER, fields, now);
+            }
+            encoder.add(read.tagId, read.rssi, read.antenna, now);
+        }
+        blackhole.consume(encoder.finish());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public void stringBatches() {
+        for (TagRead read : reads) {
+            batcher.add(Reads.READER, read.tagId, 0);
+        }
+        batcher.flush();
+    }
+}
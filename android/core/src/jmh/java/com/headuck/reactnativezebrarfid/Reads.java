@@ -0,0 +1,62 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Random;
+
+/**
+ * Generated tag reads for the benchmarks.
+ */
+final class Reads {
+
+    static final String READER = "RFD850019077523021520";
+
+    private Reads() {
+    }
+
+    static String[] population(int size, Random random) {
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = String.format("3034%08X%012X", random.nextInt(), (long) i);
+        }
+        return ids;
+    }
+
+    /**
+     * @return count inventory reads drawn from a population of the given size
+     */
+    static TagRead[] inventory(int population, int count, Random random) {
+        String[] ids = population(population, random);
+        TagRead[] reads = new TagRead[count];
+        for (int i = 0; i < count; i++) {
+            TagRead read = new TagRead();
+            read.tagId = ids[random.nextInt(ids.length)];
+            read.rssi = (short) (-40 - random.nextInt(40));
+            read.antenna = 1;
+            read.phase = (short) random.nextInt(180);
+            read.seenCount = 1;
+            reads[i] = read;
+        }
+        return reads;
+    }
+
+    /**
+     * @return count access reports of an operation, one in failEvery failing
+     */
+    static TagRead[] access(int opCode, int count, int failEvery, Random random) {
+        String[] ids = population(count, random);
+        TagRead[] reads = new TagRead[count];
+        for (int i = 0; i < count; i++) {
+            TagRead read = new TagRead();
+            read.tagId = ids[i];
+            read.opCode = opCode;
+            if (opCode == TagRead.OP_READ) {
+                read.memoryBankData = ids[i].substring(0, 16);
+            }
+            if (failEvery > 0 && i % failEvery == 0) {
+                read.opStatus = "ACCESS_TAG_MEMORY_LOCKED_ERROR";
+                read.opError = TagRead.ERROR_MEMORY_LOCKED;
+            }
+            reads[i] = read;
+        }
+        return reads;
+    }
+}
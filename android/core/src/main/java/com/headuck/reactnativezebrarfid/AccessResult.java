@@ -0,0 +1,74 @@
+package com.headuck.reactnativezebrarfid;
+
+/**
+ * Classifies the reports of read, write and lock operations into the result sent to JS
+ * and an error. Reused for every report, so error only holds the last classification's.
+ */
+final class AccessResult {
+
+    // Error to log, null if the operation succeeded
+    String error;
+
+    /**
+     * @return result to report, null if there is none
+     */
+    String read(TagRead tag, int readLengthOffset) {
+        String data = null;
+        error = null;
+        if (tag.opCode == TagRead.OP_NONE) {
+            error = "ACCESS READ memoryBankData is null";
+        } else if (tag.opStatus != null) {
+            error = tag.opStatus.replace('_', ' ');
+        } else if (tag.opCode == TagRead.OP_READ) {
+            data = tag.memoryBankData;
+            if (readLengthOffset > 0) {
+                // Drop the characters read to fill up the last word
+                data = data.substring(0, data.length() - readLengthOffset);
+            }
+        } else {
+            error = "READ FAIL";
+        }
+        return data;
+    }
+
+    /**
+     * @return result to report, null if there is none
+     */
+    String write(TagRead tag) {
+        String data = null;
+        error = null;
+        if (tag.opCode == TagRead.OP_NONE) {
+            error = "ACCESS WRITE memoryBankData is null";
+        } else if (tag.opStatus != null) {
+            error = tag.opStatus.replace('_', ' ');
+            if (tag.opError == TagRead.ERROR_MEMORY_LOCKED) {
+                data = "TAG LOCKED";
+            } else if (tag.opError == TagRead.ERROR_MEMORY_OVERRUN) {
+                data = "MEMORY OVERRUN";
+            }
+        } else if (tag.opCode == TagRead.OP_WRITE) {
+            data = "WRITE SUCCESS";
+        } else {
+            error = "WRITE FAIL";
+        }
+        return data;
+    }
+
+    /**
+     * @return result to report, null if there is none
+     */
+    String lock(TagRead tag) {
+        String data = null;
+        error = null;
+        if (tag.opCode == TagRead.OP_NONE) {
+            error = "ACCESS LOCK memoryBankData is null";
+        } else if (tag.opStatus != null) {
+            error = tag.opStatus.replace('_', ' ');
+        } else if (tag.opCode == TagRead.OP_LOCK) {
+            data = "LOCK SUCCESS";
+        } else {
+            error = "LOCK FAIL";
+        }
+        return data;
+    }
+}
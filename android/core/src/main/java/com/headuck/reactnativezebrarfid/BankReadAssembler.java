@@ -0,0 +1,86 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Joins the reports of a read sequence into one record per tag.
+ *
+ * A sequence of reads on the TID and USER banks reports each bank of each tag separately. Reports
+ * are collected per tag ID until every requested bank has been reported, successfully or not,
+ * and the record is handed over once complete. Records still incomplete when the sequence stops
+ * are handed over by flush.
+ *
+ * Written from the reader event thread and flushed from the scanner thread, so all access is
+ * synchronized on the assembler.
+ */
+class BankReadAssembler {
+
+    static final class Record {
+        String tagId;
+        String tid;
+        String user;
+        // Errors of failed reads, null on success
+        String tidError;
+        String userError;
+        int received;
+    }
+
+    private final HashMap<String, Record> pending = new HashMap<>();
+    // Bit 1 << TagRead.BANK_x for each bank read
+    private int banks = 0;
+
+    synchronized void configure(int banks) {
+        this.banks = banks;
+        pending.clear();
+    }
+
+    synchronized boolean isEnabled() {
+        return banks != 0;
+    }
+
+    synchronized boolean reads(int bank) {
+        return (banks & bit(bank)) != 0;
+    }
+
+    static int bit(int bank) {
+        return 1 << bank;
+    }
+
+    /**
+     * @return the record of the tag once all banks were reported, null otherwise
+     */
+    synchronized Record add(TagRead tag) {
+        if (tag.opCode != TagRead.OP_READ || tag.tagId == null) return null;
+        int bit = bit(tag.memoryBank);
+        if ((banks & bit) == 0) return null;
+        Record record = pending.get(tag.tagId);
+        if (record == null) {
+            record = new Record();
+            record.tagId = tag.tagId;
+            pending.put(tag.tagId, record);
+        }
+        String error = tag.opStatus != null ? tag.opStatus.replace('_', ' ') : null;
+        String data = error == null ? tag.memoryBankData : null;
+        if (tag.memoryBank == TagRead.BANK_TID) {
+            record.tid = data;
+            record.tidError = error;
+        } else {
+            record.user = data;
+            record.userError = error;
+        }
+        record.received |= bit;
+        if (record.received != banks) return null;
+        pending.remove(tag.tagId);
+        return record;
+    }
+
+    /**
+     * @return the incomplete records, which are dropped from the assembler
+     */
+    synchronized ArrayList<Record> flush() {
+        ArrayList<Record> records = new ArrayList<>(pending.values());
+        pending.clear();
+        return records;
+    }
+}
@@ -0,0 +1,63 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Random;
+
+/**
+ * Retry schedule for connecting to the reader: a bounded number of attempts with exponentially
+ * growing delays. Each delay is half fixed and half random, so readers and apps that failed
+ * together do not retry in lockstep.
+ */
+class ConnectBackoff {
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final Random random;
+
+    private int attempts = 0;
+    private long startTime = 0;
+
+    ConnectBackoff(int maxAttempts, long baseDelay, long maxDelay) {
+        this(maxAttempts, baseDelay, maxDelay, new Random());
+    }
+
+    /**
+     * @param random source of the random half of each delay
+     */
+    ConnectBackoff(int maxAttempts, long baseDelay, long maxDelay, Random random) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.random = random;
+    }
+
+    void start(long now) {
+        attempts = 0;
+        startTime = now;
+    }
+
+    /**
+     * Counts an attempt about to be made.
+     */
+    void attempt() {
+        attempts++;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return delay in ms before the next attempt, or -1 if no attempts are left
+     */
+    long nextDelay() {
+        if (attempts >= maxAttempts) return -1;
+        long delay = Math.min(maxDelay, baseDelay << Math.min(attempts - 1, 20));
+        long half = delay / 2;
+        return half + (long) (random.nextDouble() * (delay - half));
+    }
+}
@@ -0,0 +1,264 @@
+package com.headuck.reactnativezebrarfid;
+
+/**
+ * Decodes GS1 EPC binary encodings from the hex tag ID into primitive fields.
+ *
+ * The decoder is a flyweight: decode reads bits straight from the hex characters and
+ * overwrites the fields, so decoding a read allocates nothing. Strings are only built by the
+ * append methods, for the results that are reported. Supports SGTIN-96, SGTIN-198, SSCC-96,
+ * GRAI-96 and GIAI-96, with partition tables from the GS1 EPC Tag Data Standard.
+ *
+ * Not thread safe, each draining thread keeps its own.
+ */
+class EpcDecoder {
+
+    // Schemes
+    static final int NONE = 0;
+    static final int SGTIN_96 = 1;
+    static final int SGTIN_198 = 2;
+    static final int SSCC_96 = 3;
+    static final int GRAI_96 = 4;
+    static final int GIAI_96 = 5;
+
+    private static final String[] SCHEME_NAMES = {
+            null, "sgtin-96", "sgtin-198", "sscc-96", "grai-96", "giai-96"
+    };
+
+    // Groupings
+    static final int GROUP_CLASS = 0;           // GTIN of SGTINs, asset type of GRAIs, else company prefix
+    static final int GROUP_COMPANY_PREFIX = 1;
+
+    // Group keys: kind, digits and a value below 2^48. The scheme is not part of the key, so a
+    // GTIN groups SGTIN-96 and SGTIN-198 tags, and a company prefix the tags of all schemes.
+    static final int KIND_GTIN = 1;
+    static final int KIND_ASSET_TYPE = 2;
+    static final int KIND_COMPANY_PREFIX = 3;
+    private static final long GROUP_VALUE_MASK = (1L << 48) - 1;
+
+    private static final String[] KIND_NAMES = {
+            null, "gtin", "asset_type", "company_prefix"
+    };
+
+    private static final int SGTIN_198_SERIAL_CHARS = 20;
+
+    // Company prefix bits per partition, shared by all schemes
+    private static final int[] PREFIX_BITS = {40, 37, 34, 30, 27, 24, 20};
+    // Reference bits and digits per partition
+    private static final int[] SGTIN_ITEM_BITS = {4, 7, 10, 14, 17, 20, 24};
+    private static final int[] SSCC_SERIAL_BITS = {18, 21, 24, 28, 31, 34, 38};
+    private static final int[] GRAI_ASSET_BITS = {4, 7, 10, 14, 17, 20, 24};
+    private static final int[] GIAI_ASSET_BITS = {42, 45, 48, 52, 55, 58, 62};
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    int scheme;
+    int filter;
+    int partition;
+    long companyPrefix;
+    int companyPrefixDigits;
+    // Item reference with indicator, serial reference with extension, or asset type / reference
+    long reference;
+    int referenceDigits;
+    // Numeric serial, -1 for the alphanumeric serial of SGTIN-198 and for SSCC
+    long serial;
+    final char[] serialChars = new char[SGTIN_198_SERIAL_CHARS];
+    int serialLength;
+
+    private CharSequence hex;
+
+    /**
+     * @return true if the ID is one of the supported encodings, whose fields are then set
+     */
+    boolean decode(CharSequence id) {
+        scheme = NONE;
+        int bitLength = id.length() * 4;
+        if (bitLength < 96) return false;
+        for (int i = 0; i < id.length(); i++) {
+            if (EpcTable.nibble(id.charAt(i)) < 0) return false;
+        }
+        hex = id;
+        int header = (int) bits(0, 8);
+        filter = (int) bits(8, 3);
+        partition = (int) bits(11, 3);
+        if (partition > 6) return false;
+        int prefixBits = PREFIX_BITS[partition];
+        companyPrefixDigits = 12 - partition;
+        companyPrefix = bits(14, prefixBits);
+        if (companyPrefix >= POW10[companyPrefixDigits]) return false;
+        int at = 14 + prefixBits;
+        serial = -1;
+        serialLength = 0;
+        switch (header) {
+            case 0x30:
+            case 0x36:
+                referenceDigits = 13 - companyPrefixDigits;
+                reference = bits(at, SGTIN_ITEM_BITS[partition]);
+                at += SGTIN_ITEM_BITS[partition];
+                if (header == 0x30) {
+                    serial = bits(at, 38);
+                    scheme = SGTIN_96;
+                } else {
+                    if (bitLength < 198) return false;
+                    for (int i = 0; i < SGTIN_198_SERIAL_CHARS; i++) {
+                        char c = (char) bits(at + i * 7, 7);
+                        if (c == 0) break;
+                        serialChars[serialLength++] = c;
+                    }
+                    scheme = SGTIN_198;
+                }
+                break;
+            case 0x31:
+                referenceDigits = 17 - companyPrefixDigits;
+                reference = bits(at, SSCC_SERIAL_BITS[partition]);
+                scheme = SSCC_96;
+                break;
+            case 0x33:
+                referenceDigits = 12 - companyPrefixDigits;
+                reference = bits(at, GRAI_ASSET_BITS[partition]);
+                serial = bits(at + GRAI_ASSET_BITS[partition], 38);
+                scheme = GRAI_96;
+                break;
+            case 0x34:
+                // Numeric asset reference of up to 25 - prefix digits
+                referenceDigits = 0;
+                reference = bits(at, GIAI_ASSET_BITS[partition]);
+                scheme = GIAI_96;
+                break;
+            default:
+                return false;
+        }
+        if (referenceDigits > 0 && reference >= POW10[referenceDigits]) {
+            scheme = NONE;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the GTIN-14 of an SGTIN, with its check digit
+     */
+    long gtin() {
+        // Indicator digit, company prefix, item reference, then the check digit
+        int itemDigits = referenceDigits - 1;
+        long indicator = reference / POW10[itemDigits];
+        long body = indicator * POW10[12] + companyPrefix * POW10[itemDigits] + reference % POW10[itemDigits];
+        return body * 10 + checkDigit(body);
+    }
+
+    /**
+     * @return the SSCC-18 of an SSCC, with its check digit
+     */
+    long sscc() {
+        int serialDigits = referenceDigits - 1;
+        long extension = reference / POW10[serialDigits];
+        long body = extension * POW10[16] + companyPrefix * POW10[serialDigits] + reference % POW10[serialDigits];
+        return body * 10 + checkDigit(body);
+    }
+
+    /**
+     * @return the GRAI asset type, company prefix and asset type with check digit and a
+     *         leading zero, as in the first 14 digits of the AI (8003)
+     */
+    long graiAssetType() {
+        long body = companyPrefix * POW10[referenceDigits] + reference;
+        return body * 10 + checkDigit(body);
+    }
+
+    /**
+     * @return key of the group of the decoded tag, 0 if nothing is decoded
+     */
+    long groupKey(int grouping) {
+        if (scheme == NONE) return 0;
+        if (grouping == GROUP_CLASS) {
+            if (scheme == SGTIN_96 || scheme == SGTIN_198) {
+                return key(KIND_GTIN, 14, gtin());
+            } else if (scheme == GRAI_96) {
+                return key(KIND_ASSET_TYPE, 14, graiAssetType());
+            }
+        }
+        return key(KIND_COMPANY_PREFIX, companyPrefixDigits, companyPrefix);
+    }
+
+    static String schemeName(int scheme) {
+        return scheme > 0 && scheme < SCHEME_NAMES.length ? SCHEME_NAMES[scheme] : null;
+    }
+
+    static int groupKind(long key) {
+        return (int) (key >>> 56);
+    }
+
+    static String kindName(int kind) {
+        return kind > 0 && kind < KIND_NAMES.length ? KIND_NAMES[kind] : null;
+    }
+
+    /**
+     * Appends the value of a group key, zero padded to its digits.
+     */
+    static void appendGroup(StringBuilder out, long key) {
+        appendDigits(out, key & GROUP_VALUE_MASK, (int) (key >>> 48) & 0xFF);
+    }
+
+    /**
+     * Appends the serial of the decoded tag, numeric or alphanumeric.
+     */
+    void appendSerial(StringBuilder out) {
+        if (scheme == SGTIN_198) {
+            out.append(serialChars, 0, serialLength);
+        } else if (scheme == GIAI_96) {
+            out.append(reference);
+        } else if (serial >= 0) {
+            out.append(serial);
+        }
+    }
+
+    static void appendDigits(StringBuilder out, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            out.append((char) ('0' + (value / POW10[i]) % 10));
+        }
+    }
+
+    // -------
+    // Helpers
+    // -------
+    private static long key(int kind, int digits, long value) {
+        return ((long) kind << 56) | ((long) digits << 48) | value;
+    }
+
+    /**
+     * @return GS1 mod 10 check digit of the digits of body
+     */
+    private static int checkDigit(long body) {
+        int sum = 0;
+        boolean triple = true;
+        for (long rest = body; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            sum += triple ? digit * 3 : digit;
+            triple = !triple;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * @return count bits from bit offset from of the hex ID, at most 63
+     */
+    private long bits(int from, int count) {
+        long value = 0;
+        int end = from + count;
+        int pos = from;
+        while (pos < end) {
+            int nibble = EpcTable.nibble(hex.charAt(pos >> 2));
+            int bit = pos & 3;
+            int take = Math.min(4 - bit, end - pos);
+            value = (value << take) | ((nibble >> (4 - bit - take)) & ((1 << take) - 1));
+            pos += take;
+        }
+        return value;
+    }
+}
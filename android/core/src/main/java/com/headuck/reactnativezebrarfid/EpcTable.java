@@ -0,0 +1,238 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Open-addressing index of tag IDs.
+ *
+ * Hex IDs of up to 128 bits are packed into two longs, so lookups on the read path never
+ * allocate. Longer or non-hex IDs fall back to a String map. Entries are numbered densely
+ * in insertion order, which lets callers keep per-tag data in parallel primitive arrays.
+ */
+class EpcTable {
+
+    static final int MAX_PACKED_CHARS = 32;
+
+    private static final int MIN_CAPACITY = 64;
+
+    // Hash slots hold entry index + 1, 0 marks an empty slot
+    private int[] slots;
+    private int mask;
+
+    private long[] his;
+    private long[] los;
+    private byte[] lens;
+    private String[] longIds = null;
+    private HashMap<String, Integer> overflow = null;
+    private int size = 0;
+
+    EpcTable() {
+        this(MIN_CAPACITY);
+    }
+
+    EpcTable(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected) {
+            capacity <<= 1;
+        }
+        his = new long[capacity];
+        los = new long[capacity];
+        lens = new byte[capacity];
+        slots = new int[capacity * 2];
+        mask = slots.length - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return his.length;
+    }
+
+    void clear() {
+        Arrays.fill(slots, 0);
+        if (longIds != null) {
+            Arrays.fill(longIds, 0, size, null);
+        }
+        overflow = null;
+        size = 0;
+    }
+
+    /**
+     * @return entry index of the ID, or -1 if it has not been added
+     */
+    int find(CharSequence id) {
+        int len = id.length();
+        if (!isPackable(id, len)) {
+            if (overflow == null) return -1;
+            Integer entry = overflow.get(id.toString());
+            return entry == null ? -1 : entry;
+        }
+        long hi = pack(id, 0, Math.min(len, 16));
+        long lo = len > 16 ? pack(id, 16, len) : 0;
+        int slot = hash(hi, lo, len) & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (his[entry] == hi && los[entry] == lo && lens[entry] == len) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the ID if it is not present yet.
+     *
+     * @return the entry index if the ID was already present, or -(index + 1) if it was added
+     */
+    int add(CharSequence id) {
+        int len = id.length();
+        if (!isPackable(id, len)) {
+            return addOverflow(id.toString());
+        }
+        if (size == his.length) {
+            // Grow before probing, the slot found below must belong to the current table
+            grow();
+        }
+        long hi = pack(id, 0, Math.min(len, 16));
+        long lo = len > 16 ? pack(id, 16, len) : 0;
+        int slot = hash(hi, lo, len) & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (his[entry] == hi && los[entry] == lo && lens[entry] == len) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int entry = newEntry();
+        his[entry] = hi;
+        los[entry] = lo;
+        lens[entry] = (byte) len;
+        slots[slot] = entry + 1;
+        return -(entry + 1);
+    }
+
+    /**
+     * @return the upper-case hex ID of an entry
+     */
+    String get(int entry) {
+        if (lens[entry] == 0) {
+            return longIds[entry];
+        }
+        int len = lens[entry];
+        char[] chars = new char[len];
+        unpack(his[entry], chars, 0, Math.min(len, 16));
+        if (len > 16) {
+            unpack(los[entry], chars, 16, len);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return number of hex characters of a packed entry, 0 if the entry is not packed
+     */
+    int length(int entry) {
+        return lens[entry];
+    }
+
+    /**
+     * @return first 16 hex characters of a packed entry, right-aligned
+     */
+    long high(int entry) {
+        return his[entry];
+    }
+
+    /**
+     * @return hex characters 17 to 32 of a packed entry, right-aligned
+     */
+    long low(int entry) {
+        return los[entry];
+    }
+
+    // -------
+    // Helpers
+    // -------
+    private int addOverflow(String id) {
+        if (overflow == null) {
+            overflow = new HashMap<>();
+        }
+        Integer existing = overflow.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int entry = newEntry();
+        if (longIds == null) {
+            longIds = new String[his.length];
+        }
+        longIds[entry] = id;
+        lens[entry] = 0;
+        overflow.put(id, entry);
+        return -(entry + 1);
+    }
+
+    private int newEntry() {
+        if (size == his.length) {
+            grow();
+        }
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = his.length * 2;
+        his = Arrays.copyOf(his, capacity);
+        los = Arrays.copyOf(los, capacity);
+        lens = Arrays.copyOf(lens, capacity);
+        if (longIds != null) {
+            longIds = Arrays.copyOf(longIds, capacity);
+        }
+        slots = new int[capacity * 2];
+        mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            if (lens[entry] == 0) continue;
+            int slot = hash(his[entry], los[entry], lens[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static boolean isPackable(CharSequence id, int len) {
+        if (len == 0 || len > MAX_PACKED_CHARS) return false;
+        for (int i = 0; i < len; i++) {
+            if (nibble(id.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+
+    private static long pack(CharSequence id, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = (value << 4) | nibble(id.charAt(i));
+        }
+        return value;
+    }
+
+    private static void unpack(long value, char[] chars, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            chars[i] = Character.toUpperCase(Character.forDigit((int) (value & 0xF), 16));
+            value >>>= 4;
+        }
+    }
+
+    static int nibble(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+
+    private static int hash(long hi, long lo, int len) {
+        long h = hi * 0x9E3779B97F4A7C15L + lo;
+        h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L + len;
+        return (int) (h ^ (h >>> 32));
+    }
+}
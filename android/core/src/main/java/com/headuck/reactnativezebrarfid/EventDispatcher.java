@@ -0,0 +1,227 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands events from the reader threads to a single consumer thread which emits them to JS.
+ *
+ * Events are queued in a bounded ring buffer that is allocated once. When the buffer is full
+ * the overflow policy decides whether the producer waits, the oldest queued event is dropped
+ * or the new event is dropped. Only events posted as droppable, i.e. tag results, are ever
+ * dropped: other events take the place of the oldest droppable event, or wait for space if
+ * there is none. Dropped events are counted and reported through the emitter.
+ */
+class EventDispatcher {
+
+    enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    interface Emitter {
+        void emit(String name, Object data);
+        void onDropped(long dropped);
+    }
+
+    private final Emitter emitter;
+
+    private final String[] names;
+    private final Object[] payloads;
+    private final long[] postTimes;
+    private final boolean[] droppables;
+    private int head = 0;
+    private int count = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported = 0;
+    // Time from post until the emitter returned
+    private final LatencyRecorder latency = new LatencyRecorder();
+
+    private Thread consumer = null;
+    private volatile boolean running = false;
+
+    EventDispatcher(int capacity, Emitter emitter) {
+        this.emitter = emitter;
+        this.names = new String[capacity];
+        this.payloads = new Object[capacity];
+        this.postTimes = new long[capacity];
+        this.droppables = new boolean[capacity];
+    }
+
+    void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        lock.lock();
+        try {
+            // Release producers waiting under the previous policy
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    int getQueuedCount() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume();
+            }
+        }, "RFIDEventDispatcher");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+            consumer = null;
+        }
+        lock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an event for emission.
+     *
+     * @param droppable true if the event may be dropped on overflow, false for status and
+     *                  control events, which are queued unless the dispatcher is stopped
+     * @return false if the event was dropped
+     */
+    boolean post(String name, Object data, boolean droppable) {
+        lock.lock();
+        try {
+            while (count == names.length) {
+                OverflowPolicy policy = overflowPolicy;
+                if (!running || (droppable && policy == OverflowPolicy.DROP_NEWEST)) {
+                    dropped.incrementAndGet();
+                    return false;
+                } else if (policy != OverflowPolicy.BLOCK && evictOldestDroppable()) {
+                    dropped.incrementAndGet();
+                } else if (droppable && policy == OverflowPolicy.DROP_OLDEST) {
+                    // Only events that must not be dropped are queued
+                    dropped.incrementAndGet();
+                    return false;
+                } else {
+                    try {
+                        notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                }
+            }
+            int tail = (head + count) % names.length;
+            names[tail] = name;
+            payloads[tail] = data;
+            postTimes[tail] = System.nanoTime();
+            droppables[tail] = droppable;
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest droppable event, moving the events queued before it up one place.
+     * Called with the lock held.
+     *
+     * @return false if no droppable event is queued
+     */
+    private boolean evictOldestDroppable() {
+        int length = names.length;
+        for (int i = 0; i < count; i++) {
+            if (!droppables[(head + i) % length]) continue;
+            for (int j = i; j > 0; j--) {
+                int to = (head + j) % length;
+                int from = (head + j - 1) % length;
+                names[to] = names[from];
+                payloads[to] = payloads[from];
+                postTimes[to] = postTimes[from];
+                droppables[to] = droppables[from];
+            }
+            names[head] = null;
+            payloads[head] = null;
+            head = (head + 1) % length;
+            count--;
+            return true;
+        }
+        return false;
+    }
+
+    private void consume() {
+        while (running) {
+            String name;
+            Object data;
+            long postTime;
+            lock.lock();
+            try {
+                while (count == 0) {
+                    notEmpty.await();
+                }
+                name = names[head];
+                data = payloads[head];
+                postTime = postTimes[head];
+                names[head] = null;
+                payloads[head] = null;
+                head = (head + 1) % names.length;
+                count--;
+                notFull.signal();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                emitter.emit(name, data);
+            } catch (Exception e) {
+                // Keep consuming, the JS side may not be ready yet
+            }
+            latency.record((System.nanoTime() - postTime) / 1000);
+
+            long total = dropped.get();
+            if (total != droppedReported && getQueuedCount() == 0) {
+                emitter.onDropped(total - droppedReported);
+                droppedReported = total;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.headuck.reactnativezebrarfid;
+
+/**
+ * Fetch size for draining the SDK tag buffer. Doubles while fetches come back full and halves
+ * while they come back mostly empty, staying within the configured bounds.
+ *
+ * Adapted on the reader event thread; the bounds are set by setMode on the scanner thread.
+ */
+class FetchSizer {
+
+    private volatile int min;
+    private volatile int max;
+    private volatile int current;
+
+    FetchSizer(int min, int max, int initial) {
+        configure(min, max);
+        this.current = clamp(initial);
+    }
+
+    synchronized void configure(int min, int max) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.current = clamp(current);
+    }
+
+    int get() {
+        return current;
+    }
+
+    int getMin() {
+        return min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    /**
+     * Adapts the fetch size to the number of tags returned by the last fetch.
+     */
+    void update(int fetched) {
+        int size = current;
+        if (fetched >= size) {
+            current = clamp(size * 2);
+        } else if (fetched < size / 4) {
+            current = clamp(size / 2);
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.min(max, Math.max(min, size));
+    }
+}
@@ -0,0 +1,126 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Arrays;
+
+/**
+ * Counts per long key in open-addressing primitive arrays, remembering which keys changed
+ * since they were last taken, so only those are reported.
+ *
+ * Keys are non-zero, 0 marks an empty slot. Written from the reader event thread and queried
+ * from the module, so all access is synchronized on the counter.
+ */
+class GroupCounter {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private long[] keys = new long[MIN_CAPACITY * 2];
+    private int[] counts = new int[MIN_CAPACITY * 2];
+    private int size = 0;
+
+    // Slots of changed keys, and whether a slot is listed
+    private int[] changed = new int[MIN_CAPACITY];
+    private int changedCount = 0;
+    private boolean[] listed = new boolean[MIN_CAPACITY * 2];
+
+    synchronized void increment(long key) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int slot = find(keys, key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot]++;
+        if (!listed[slot]) {
+            listed[slot] = true;
+            if (changedCount == changed.length) {
+                changed = Arrays.copyOf(changed, changed.length * 2);
+            }
+            changed[changedCount++] = slot;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean hasChanges() {
+        return changedCount > 0;
+    }
+
+    /**
+     * Hands over the keys changed since the last call with their counts, and clears the list.
+     *
+     * @return number of keys visited
+     */
+    synchronized int takeChanges(Visitor visitor) {
+        int taken = changedCount;
+        for (int i = 0; i < taken; i++) {
+            int slot = changed[i];
+            listed[slot] = false;
+            visitor.visit(keys[slot], counts[slot]);
+        }
+        changedCount = 0;
+        return taken;
+    }
+
+    /**
+     * Visits all keys with their counts, leaving the changes listed.
+     */
+    synchronized void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                visitor.visit(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(listed, false);
+        size = 0;
+        changedCount = 0;
+    }
+
+    interface Visitor {
+        void visit(long key, int count);
+    }
+
+    // -------
+    // Helpers
+    // -------
+    private static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        boolean[] oldListed = listed;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[keys.length];
+        listed = new boolean[keys.length];
+        changedCount = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = find(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            if (oldListed[i]) {
+                listed[slot] = true;
+                if (changedCount == changed.length) {
+                    changed = Arrays.copyOf(changed, changed.length * 2);
+                }
+                changed[changedCount++] = slot;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Arrays;
+
+/**
+ * Unique tags seen during an inventory, with read counts and first / last seen times.
+ * Reads that carry tag metadata also aggregate RSSI, seen counts and the last antenna and phase.
+ *
+ * Written from the reader event thread and queried from the module, so all access is
+ * synchronized on the tally.
+ */
+class InventoryTally {
+
+    private final EpcTable table = new EpcTable(1024);
+    private int[] counts = new int[table.capacity()];
+    private long[] firstSeen = new long[table.capacity()];
+    private long[] lastSeen = new long[table.capacity()];
+
+    // Metadata aggregates, per entry
+    private int[] metadataReads = new int[table.capacity()];
+    private short[] maxRssi = new short[table.capacity()];
+    private long[] rssiSum = new long[table.capacity()];
+    private long[] seenCounts = new long[table.capacity()];
+    private short[] lastAntenna = new short[table.capacity()];
+    private short[] lastPhase = new short[table.capacity()];
+
+    /**
+     * Counts one read of a tag.
+     *
+     * @return true if this is the first read of the tag
+     */
+    synchronized boolean record(String tagId, long time) {
+        return entryFor(tagId, time) < 0;
+    }
+
+    /**
+     * Counts one read of a tag and aggregates the metadata reported with it.
+     *
+     * @return true if this is the first read of the tag
+     */
+    synchronized boolean record(String tagId, long time, short rssi, short antenna, short phase, int seenCount) {
+        int entry = entryFor(tagId, time);
+        boolean added = entry < 0;
+        if (added) {
+            entry = -entry - 1;
+        }
+        if (metadataReads[entry] == 0 || rssi > maxRssi[entry]) {
+            maxRssi[entry] = rssi;
+        }
+        metadataReads[entry]++;
+        rssiSum[entry] += rssi;
+        seenCounts[entry] += Math.max(1, seenCount);
+        lastAntenna[entry] = antenna;
+        lastPhase[entry] = phase;
+        return added;
+    }
+
+    synchronized int size() {
+        return table.size();
+    }
+
+    /**
+     * @return true if the tag was read since the tally was cleared
+     */
+    synchronized boolean contains(String tagId) {
+        return table.find(tagId) >= 0;
+    }
+
+    synchronized void clear() {
+        table.clear();
+    }
+
+    synchronized String getTagId(int entry) {
+        return table.get(entry);
+    }
+
+    synchronized int getCount(int entry) {
+        return counts[entry];
+    }
+
+    synchronized long getFirstSeen(int entry) {
+        return firstSeen[entry];
+    }
+
+    synchronized long getLastSeen(int entry) {
+        return lastSeen[entry];
+    }
+
+    synchronized boolean hasMetadata(int entry) {
+        return metadataReads[entry] > 0;
+    }
+
+    synchronized short getMaxRssi(int entry) {
+        return maxRssi[entry];
+    }
+
+    synchronized double getAverageRssi(int entry) {
+        return metadataReads[entry] == 0 ? 0 : (double) rssiSum[entry] / metadataReads[entry];
+    }
+
+    synchronized long getSeenCount(int entry) {
+        return seenCounts[entry];
+    }
+
+    synchronized short getAntenna(int entry) {
+        return lastAntenna[entry];
+    }
+
+    synchronized short getPhase(int entry) {
+        return lastPhase[entry];
+    }
+
+    /**
+     * @return entry index if the tag was known, -(index + 1) if it was added
+     */
+    private int entryFor(String tagId, long time) {
+        int entry = table.add(tagId);
+        int index = entry;
+        if (entry < 0) {
+            index = -entry - 1;
+            ensureCapacity();
+            firstSeen[index] = time;
+            counts[index] = 0;
+            metadataReads[index] = 0;
+            rssiSum[index] = 0;
+            seenCounts[index] = 0;
+        }
+        counts[index]++;
+        lastSeen[index] = time;
+        return entry;
+    }
+
+    private void ensureCapacity() {
+        int capacity = table.capacity();
+        if (counts.length < capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+            firstSeen = Arrays.copyOf(firstSeen, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+            metadataReads = Arrays.copyOf(metadataReads, capacity);
+            maxRssi = Arrays.copyOf(maxRssi, capacity);
+            rssiSum = Arrays.copyOf(rssiSum, capacity);
+            seenCounts = Arrays.copyOf(seenCounts, capacity);
+            lastAntenna = Arrays.copyOf(lastAntenna, capacity);
+            lastPhase = Arrays.copyOf(lastPhase, capacity);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in microseconds, for percentiles without keeping samples.
+ *
+ * Buckets are log-linear: each power of two is split into 8 buckets, so a percentile is
+ * reported as the upper bound of its bucket, at most 12.5% above the recorded value.
+ */
+class LatencyRecorder {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long micros) {
+        long value = Math.max(0, micros);
+        buckets.incrementAndGet(index(value));
+        count.incrementAndGet();
+        ReaderStats.updateMax(max, value);
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return latency in microseconds at or below which the percentile of samples fall,
+     *         0 if nothing was recorded
+     */
+    long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        max.set(0);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
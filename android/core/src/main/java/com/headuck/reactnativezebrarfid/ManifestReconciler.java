@@ -0,0 +1,93 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.BitSet;
+
+/**
+ * Reconciles inventory reads against a manifest of expected tag IDs.
+ *
+ * The manifest is an EpcTable, so a read is looked up in O(1) without allocating, and found
+ * entries are kept in a bit set by entry index. Tags not on the manifest are collected in a
+ * second table, so each is reported as unexpected once.
+ *
+ * Written from the reader event thread and the scanner thread, so all access is synchronized
+ * on the reconciler.
+ */
+class ManifestReconciler {
+
+    // Outcomes of a read
+    static final int REPEAT = 0;
+    static final int FOUND = 1;
+    static final int UNEXPECTED = 2;
+
+    private final EpcTable manifest;
+    private final BitSet found;
+    private int foundCount = 0;
+    private final EpcTable unexpected = new EpcTable();
+
+    /**
+     * @param ids expected tag IDs, duplicates are counted once
+     */
+    ManifestReconciler(Iterable<? extends CharSequence> ids, int expected) {
+        manifest = new EpcTable(expected);
+        for (CharSequence id : ids) {
+            manifest.add(id);
+        }
+        found = new BitSet(manifest.size());
+    }
+
+    /**
+     * @return FOUND the first time a manifest tag is read, UNEXPECTED the first time any other
+     *         tag is read, REPEAT otherwise
+     */
+    synchronized int record(CharSequence id) {
+        int entry = manifest.find(id);
+        if (entry >= 0) {
+            if (found.get(entry)) return REPEAT;
+            found.set(entry);
+            foundCount++;
+            return FOUND;
+        }
+        return unexpected.add(id) < 0 ? UNEXPECTED : REPEAT;
+    }
+
+    synchronized int getExpectedCount() {
+        return manifest.size();
+    }
+
+    synchronized int getFoundCount() {
+        return foundCount;
+    }
+
+    synchronized int getMissingCount() {
+        return manifest.size() - foundCount;
+    }
+
+    synchronized int getUnexpectedCount() {
+        return unexpected.size();
+    }
+
+    /**
+     * @return index of the first missing manifest entry at or after from, or -1 if none
+     */
+    synchronized int nextMissing(int from) {
+        int entry = found.nextClearBit(from);
+        return entry < manifest.size() ? entry : -1;
+    }
+
+    synchronized String getExpectedId(int entry) {
+        return manifest.get(entry);
+    }
+
+    synchronized String getUnexpectedId(int index) {
+        return unexpected.get(index);
+    }
+
+    /**
+     * Starts the count over, keeping the manifest.
+     */
+    synchronized void reset() {
+        found.clear();
+        foundCount = 0;
+        unexpected.clear();
+    }
+}
@@ -0,0 +1,129 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.List;
+
+/**
+ * Smoothed relative distance of the targets of locate mode.
+ *
+ * The reader reports a relative distance of 0 to 100 for every read of a target, higher being
+ * closer, at a rate well above what a UI needs and with a lot of jitter. Each report updates an
+ * exponential moving average, and targets updated since they were last taken are handed over
+ * together, at most once per minimum interval, so updates are sent at a capped rate whatever the
+ * read rate.
+ *
+ * Updated from the reader event thread and taken on the scheduler, so all access is
+ * synchronized on the tracker.
+ */
+class ProximityTracker {
+
+    private final EpcTable table;
+    private final String[] ids;
+    private final double alpha;
+
+    private final double[] smoothed;
+    private final int[] raw;
+    private final long[] lastSeen;
+    private final boolean[] changed;
+
+    // Time changes were last handed over by the rate capped take
+    private boolean taken = false;
+    private long lastTaken = 0;
+
+    /**
+     * @param ids target tag IDs
+     * @param alpha weight of a new report in the average, 0 to 1, 1 for no smoothing
+     */
+    ProximityTracker(List<String> ids, double alpha) {
+        this.table = new EpcTable(ids.size());
+        for (String id : ids) {
+            table.add(id);
+        }
+        int size = table.size();
+        this.ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            this.ids[i] = table.get(i);
+        }
+        this.alpha = Math.max(0.01, Math.min(1, alpha));
+        smoothed = new double[size];
+        raw = new int[size];
+        lastSeen = new long[size];
+        changed = new boolean[size];
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    String getId(int target) {
+        return ids[target];
+    }
+
+    /**
+     * @return false if the ID is not a target
+     */
+    synchronized boolean update(CharSequence id, int distance, long time) {
+        int target = table.find(id);
+        if (target < 0) return false;
+        update(target, distance, time);
+        return true;
+    }
+
+    synchronized void update(int target, int distance, long time) {
+        smoothed[target] = lastSeen[target] == 0
+                ? distance
+                : smoothed[target] + alpha * (distance - smoothed[target]);
+        raw[target] = distance;
+        lastSeen[target] = time;
+        changed[target] = true;
+    }
+
+    /**
+     * Hands over the targets updated since the last call, unless changes were handed over less
+     * than minInterval ago. A timer running late then does not send updates back to back.
+     *
+     * @param now current time in ms
+     * @return number of targets visited
+     */
+    synchronized int takeChanges(long now, long minInterval, Visitor visitor) {
+        if (taken && now - lastTaken < minInterval) return 0;
+        int count = takeChanges(visitor);
+        if (count > 0) {
+            taken = true;
+            lastTaken = now;
+        }
+        return count;
+    }
+
+    /**
+     * Hands over the targets updated since the last call, whatever the rate.
+     *
+     * @return number of targets visited
+     */
+    synchronized int takeChanges(Visitor visitor) {
+        int taken = 0;
+        for (int target = 0; target < ids.length; target++) {
+            if (!changed[target]) continue;
+            changed[target] = false;
+            visitor.visit(ids[target], smoothed[target], raw[target], lastSeen[target]);
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * Forgets the distances, e.g. when locating starts again.
+     */
+    synchronized void reset() {
+        for (int target = 0; target < ids.length; target++) {
+            smoothed[target] = 0;
+            raw[target] = 0;
+            lastSeen[target] = 0;
+            changed[target] = false;
+        }
+        taken = false;
+    }
+
+    interface Visitor {
+        void visit(String id, double distance, int raw, long lastSeen);
+    }
+}
@@ -0,0 +1,34 @@
+package com.headuck.reactnativezebrarfid;
+
+/**
+ * Source of tag reads for the read pipeline. The Zebra backend wraps a connected RFIDReader,
+ * the simulated backend generates a tag population so the pipeline runs without hardware.
+ */
+interface ReaderBackend {
+
+    /**
+     * Events of backends that raise their own, the Zebra backend's arrive through the
+     * RfidEventsListener of the scanner thread.
+     */
+    interface Listener {
+        void onReadNotify();
+        void onTrigger(boolean pressed);
+        void onInventory(boolean started);
+        void onDisconnect();
+    }
+
+    String getName();
+
+    boolean isConnected();
+
+    void startInventory() throws Exception;
+
+    void stopInventory() throws Exception;
+
+    /**
+     * Takes up to max buffered reads into the start of reads.
+     *
+     * @return number of reads filled in
+     */
+    int fetch(TagRead[] reads, int max);
+}
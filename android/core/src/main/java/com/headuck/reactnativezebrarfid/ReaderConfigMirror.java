@@ -0,0 +1,63 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Arrays;
+
+/**
+ * Last configuration applied to the connected reader, so that settings are only sent when
+ * they differ. Values are unknown after a connect or reconnect until they are applied again.
+ *
+ * Only used from the scanner thread.
+ */
+class ReaderConfigMirror {
+
+    static final int ANTENNA_POWER = 0;
+    static final int RF_MODE = 1;
+    static final int TARI = 2;
+    static final int DPO = 3;
+    static final int TRIGGERS = 4;
+    static final int ACCESS_TIMEOUT = 5;
+    static final int TAG_FIELDS = 6;
+    static final int PRE_FILTERS = 7;
+    static final int SINGULATION = 8;
+    static final int READ_SEQUENCE = 9;
+
+    private static final int SETTINGS = 10;
+
+    private final long[] values = new long[SETTINGS];
+    private final boolean[] known = new boolean[SETTINGS];
+
+    /**
+     * @return true if the setting is unknown or was last applied with a different value
+     */
+    boolean differs(int setting, long value) {
+        return !known[setting] || values[setting] != value;
+    }
+
+    /**
+     * @return true if the setting was applied since the last invalidate
+     */
+    boolean isKnown(int setting) {
+        return known[setting];
+    }
+
+    void applied(int setting, long value) {
+        values[setting] = value;
+        known[setting] = true;
+    }
+
+    void invalidate() {
+        Arrays.fill(known, false);
+    }
+
+    /**
+     * 64-bit FNV-1a hash, for settings that are compared by a key string.
+     */
+    static long hash(CharSequence key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,160 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters for the read path and the connection. Updated from the reader event thread without
+ * locking and read from any thread.
+ */
+class ReaderStats {
+
+    // Drain iterations per notification: 1, 2, 3-4, 5-8, 9-16, 17-32, more
+    static final int DRAIN_BUCKETS = 7;
+
+    // Tags per notification, upper bounds of all but the last bucket: 0, 1-10, 11-50, 51-100,
+    // 101-500, 501-1000, more
+    private static final int[] BATCH_BOUNDS = { 0, 10, 50, 100, 500, 1000 };
+    static final int BATCH_BUCKETS = BATCH_BOUNDS.length + 1;
+
+    private final AtomicLong readNotifications = new AtomicLong();
+    private final AtomicLong drainIterations = new AtomicLong();
+    private final AtomicLong maxDrainIterations = new AtomicLong();
+    private final AtomicLong tagsDrained = new AtomicLong();
+    private final AtomicLongArray drainHistogram = new AtomicLongArray(DRAIN_BUCKETS);
+    private final AtomicLongArray batchHistogram = new AtomicLongArray(BATCH_BUCKETS);
+    // Time from read notification to the results being handed to the dispatcher, for batched
+    // tags until their batch is
+    private final LatencyRecorder drainLatency = new LatencyRecorder();
+
+    // Connection
+    private final AtomicLong connectAttempts = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+
+    private volatile long resetTime = System.currentTimeMillis();
+
+    /**
+     * @param micros time taken from the read notification until the results were dispatched
+     */
+    void recordDrain(int iterations, int tags, long micros) {
+        recordDrain(iterations, tags);
+        drainLatency.record(micros);
+    }
+
+    /**
+     * @param micros time taken from the read notification until results held back by the drain,
+     *               e.g. in a batch, were dispatched
+     */
+    void recordDrainLatency(long micros) {
+        drainLatency.record(micros);
+    }
+
+    void recordDrain(int iterations, int tags) {
+        int batch = 0;
+        while (batch < BATCH_BOUNDS.length && tags > BATCH_BOUNDS[batch]) {
+            batch++;
+        }
+        batchHistogram.incrementAndGet(batch);
+        readNotifications.incrementAndGet();
+        drainIterations.addAndGet(iterations);
+        tagsDrained.addAndGet(tags);
+        updateMax(maxDrainIterations, iterations);
+        int bucket = iterations <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(iterations - 1);
+        drainHistogram.incrementAndGet(Math.min(bucket, DRAIN_BUCKETS - 1));
+    }
+
+    long getReadNotifications() {
+        return readNotifications.get();
+    }
+
+    long getDrainIterations() {
+        return drainIterations.get();
+    }
+
+    long getMaxDrainIterations() {
+        return maxDrainIterations.get();
+    }
+
+    long getTagsDrained() {
+        return tagsDrained.get();
+    }
+
+    long getDrainHistogram(int bucket) {
+        return drainHistogram.get(bucket);
+    }
+
+    long getBatchHistogram(int bucket) {
+        return batchHistogram.get(bucket);
+    }
+
+    LatencyRecorder getDrainLatency() {
+        return drainLatency;
+    }
+
+    void recordConnectAttempt() {
+        connectAttempts.incrementAndGet();
+    }
+
+    void recordConnect() {
+        connects.incrementAndGet();
+    }
+
+    void recordReconnect() {
+        reconnects.incrementAndGet();
+    }
+
+    void recordDisconnect() {
+        disconnects.incrementAndGet();
+    }
+
+    long getConnectAttempts() {
+        return connectAttempts.get();
+    }
+
+    long getConnects() {
+        return connects.get();
+    }
+
+    long getReconnects() {
+        return reconnects.get();
+    }
+
+    long getDisconnects() {
+        return disconnects.get();
+    }
+
+    /**
+     * @return time of the last reset, when the counters started
+     */
+    long getResetTime() {
+        return resetTime;
+    }
+
+    void reset() {
+        readNotifications.set(0);
+        drainIterations.set(0);
+        maxDrainIterations.set(0);
+        tagsDrained.set(0);
+        for (int i = 0; i < DRAIN_BUCKETS; i++) {
+            drainHistogram.set(i, 0);
+        }
+        for (int i = 0; i < BATCH_BUCKETS; i++) {
+            batchHistogram.set(i, 0);
+        }
+        drainLatency.reset();
+        connectAttempts.set(0);
+        connects.set(0);
+        reconnects.set(0);
+        disconnects.set(0);
+        resetTime = System.currentTimeMillis();
+    }
+
+    static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+}
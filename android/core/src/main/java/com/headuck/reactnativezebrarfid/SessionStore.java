@@ -0,0 +1,283 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Unique tags of an inventory session in a memory-mapped file, so a session survives a JS
+ * reload or a crash of the app and can be resumed, and is queried in pages instead of held
+ * in JS.
+ *
+ * The file is a header followed by fixed-width records, one per tag in the order first seen.
+ * Records are only ever appended; a tag seen again updates its count, last seen time and
+ * RSSI in place. The record count in the header is written after the record, so a file cut
+ * short by a crash still holds whole records. The mapping grows by doubling.
+ *
+ * Record index equals the entry index of the EpcTable that finds tags, which is rebuilt from
+ * the records when a session is reopened. Written from the reader event thread and queried
+ * from the module, so all access is synchronized on the store.
+ */
+class SessionStore {
+
+    static final int MAX_ID_CHARS = 64;
+
+    private static final int MAGIC = 0x52464953; // "RFIS"
+    private static final int VERSION = 1;
+
+    // Header
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_RECORD_SIZE = 8;
+    private static final int H_RECORDS = 12;
+    private static final int H_CREATED = 16;
+    private static final int H_UPDATED = 24;
+    private static final int H_READS = 32;
+
+    // Record
+    private static final int RECORD_SIZE = 64;
+    private static final int R_ID_CHARS = 0;
+    private static final int R_ID = 1;            // packed hex, MAX_ID_CHARS / 2 bytes
+    private static final int R_COUNT = 36;
+    private static final int R_FIRST_SEEN = 40;
+    private static final int R_LAST_SEEN = 48;
+    private static final int R_MAX_RSSI = 56;
+    private static final int R_ANTENNA = 58;
+
+    private static final int INITIAL_RECORDS = 1024;
+
+    final String name;
+    private final File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private final EpcTable table = new EpcTable(INITIAL_RECORDS);
+    private int records;
+    private long reads;
+    private boolean closed = false;
+
+    private SessionStore(String name, File file) {
+        this.name = name;
+        this.file = file;
+    }
+
+    /**
+     * Opens the session file, creating it if it does not exist.
+     *
+     * @throws IOException if the file cannot be mapped or is not a session file
+     */
+    static SessionStore open(String name, File file, long now) throws IOException {
+        SessionStore store = new SessionStore(name, file);
+        boolean exists = file.exists() && file.length() >= HEADER_SIZE;
+        store.raf = new RandomAccessFile(file, "rw");
+        store.channel = store.raf.getChannel();
+        try {
+            if (exists) {
+                store.load();
+            } else {
+                store.map(INITIAL_RECORDS);
+                store.buffer.putInt(H_MAGIC, MAGIC);
+                store.buffer.putInt(H_VERSION, VERSION);
+                store.buffer.putInt(H_RECORD_SIZE, RECORD_SIZE);
+                store.buffer.putInt(H_RECORDS, 0);
+                store.buffer.putLong(H_CREATED, now);
+                store.buffer.putLong(H_UPDATED, now);
+                store.buffer.putLong(H_READS, 0);
+            }
+        } catch (IOException e) {
+            store.channel.close();
+            store.raf.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * @return true if the ID can be stored, i.e. hex of at most MAX_ID_CHARS characters
+     */
+    static boolean isStorable(CharSequence id) {
+        int len = id.length();
+        if (len == 0 || len > MAX_ID_CHARS) return false;
+        for (int i = 0; i < len; i++) {
+            if (EpcTable.nibble(id.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts one read of a tag, appending a record if it is new.
+     *
+     * @param rssi peak RSSI, 0 if not reported
+     * @param antenna antenna ID, 0 if not reported
+     * @return true if the tag was appended, false if it was seen before or cannot be stored
+     */
+    synchronized boolean record(String tagId, long time, short rssi, short antenna) {
+        if (closed || !isStorable(tagId)) return false;
+        int entry = table.add(tagId);
+        boolean added = entry < 0;
+        if (added) {
+            entry = -entry - 1;
+            if (entry >= capacity) {
+                try {
+                    map(capacity * 2);
+                } catch (IOException e) {
+                    // Keep the table in step with the records
+                    table.clear();
+                    rebuild();
+                    return false;
+                }
+            }
+            int at = offset(entry);
+            int len = tagId.length();
+            buffer.put(at + R_ID_CHARS, (byte) len);
+            for (int i = 0; i < len; i += 2) {
+                int hi = EpcTable.nibble(tagId.charAt(i));
+                int lo = i + 1 < len ? EpcTable.nibble(tagId.charAt(i + 1)) : 0;
+                buffer.put(at + R_ID + i / 2, (byte) (hi << 4 | lo));
+            }
+            buffer.putInt(at + R_COUNT, 1);
+            buffer.putLong(at + R_FIRST_SEEN, time);
+            buffer.putLong(at + R_LAST_SEEN, time);
+            buffer.putShort(at + R_MAX_RSSI, rssi);
+            buffer.putShort(at + R_ANTENNA, antenna);
+            records = entry + 1;
+            // Publish the record after it is complete
+            buffer.putInt(H_RECORDS, records);
+        } else {
+            int at = offset(entry);
+            buffer.putInt(at + R_COUNT, buffer.getInt(at + R_COUNT) + 1);
+            buffer.putLong(at + R_LAST_SEEN, time);
+            if (rssi != 0 && (rssi > buffer.getShort(at + R_MAX_RSSI) || buffer.getShort(at + R_MAX_RSSI) == 0)) {
+                buffer.putShort(at + R_MAX_RSSI, rssi);
+            }
+            if (antenna != 0) {
+                buffer.putShort(at + R_ANTENNA, antenna);
+            }
+        }
+        reads++;
+        buffer.putLong(H_READS, reads);
+        buffer.putLong(H_UPDATED, time);
+        return added;
+    }
+
+    synchronized int size() {
+        return records;
+    }
+
+    synchronized long getReads() {
+        return reads;
+    }
+
+    synchronized long getCreated() {
+        return closed ? 0 : buffer.getLong(H_CREATED);
+    }
+
+    synchronized long getUpdated() {
+        return closed ? 0 : buffer.getLong(H_UPDATED);
+    }
+
+    synchronized String getTagId(int index) {
+        return table.get(index);
+    }
+
+    synchronized int getCount(int index) {
+        return buffer.getInt(offset(index) + R_COUNT);
+    }
+
+    synchronized long getFirstSeen(int index) {
+        return buffer.getLong(offset(index) + R_FIRST_SEEN);
+    }
+
+    synchronized long getLastSeen(int index) {
+        return buffer.getLong(offset(index) + R_LAST_SEEN);
+    }
+
+    synchronized short getMaxRssi(int index) {
+        return buffer.getShort(offset(index) + R_MAX_RSSI);
+    }
+
+    synchronized short getAntenna(int index) {
+        return buffer.getShort(offset(index) + R_ANTENNA);
+    }
+
+    /**
+     * Writes the mapped pages to the file, e.g. when an inventory stops.
+     */
+    synchronized void flush() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    synchronized void close() {
+        if (closed) return;
+        closed = true;
+        buffer.force();
+        try {
+            channel.close();
+            raf.close();
+        } catch (IOException e) {
+            // Pages are already forced, nothing is lost
+        }
+        buffer = null;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // -------
+    // Helpers
+    // -------
+    private static int offset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private void map(int records) throws IOException {
+        long size = (long) HEADER_SIZE + (long) records * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("session full");
+        }
+        // Mapping beyond the end of a read-write channel extends the file
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = records;
+    }
+
+    private void load() throws IOException {
+        long length = channel.size();
+        int mapped = (int) Math.max(INITIAL_RECORDS, (length - HEADER_SIZE) / RECORD_SIZE);
+        map(mapped);
+        if (buffer.getInt(H_MAGIC) != MAGIC || buffer.getInt(H_VERSION) != VERSION
+                || buffer.getInt(H_RECORD_SIZE) != RECORD_SIZE) {
+            throw new IOException("not a session file: " + file.getName());
+        }
+        records = Math.min(buffer.getInt(H_RECORDS), capacity);
+        reads = buffer.getLong(H_READS);
+        rebuild();
+    }
+
+    /**
+     * Adds the IDs of the records to the table, in record order.
+     */
+    private void rebuild() {
+        StringBuilder id = new StringBuilder(MAX_ID_CHARS);
+        for (int index = 0; index < records; index++) {
+            int at = offset(index);
+            int len = buffer.get(at + R_ID_CHARS);
+            id.setLength(0);
+            for (int i = 0; i < len; i++) {
+                int b = buffer.get(at + R_ID + i / 2) & 0xFF;
+                int nibble = (i & 1) == 0 ? b >>> 4 : b & 0xF;
+                id.append(Character.toUpperCase(Character.forDigit(nibble, 16)));
+            }
+            table.add(id);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reader backend that generates reads from a simulated tag population, for load testing the
+ * read pipeline without hardware.
+ *
+ * While inventory runs, reads are generated on the scheduler at the profile's read rate and
+ * buffered like the SDK does, then the listener is notified to fetch them. The profile can also
+ * repeat tags back to back, press the trigger periodically and drop the connection at random.
+ */
+class SimulatedReaderBackend implements ReaderBackend {
+
+    static class Profile {
+        int population = 500;
+        // Reads per second while inventory runs
+        int readRate = 1000;
+        // Chance that a read repeats the previous tag
+        double duplicateRatio = 0;
+        int rssiMean = -55;
+        int rssiSpread = 10;
+        int antennas = 1;
+        // Disconnects per minute of inventory
+        double disconnectRate = 0;
+        // Simulated trigger presses, 0 for none
+        int triggerInterval = 0;
+        int triggerHold = 1000;
+        long seed = 0;
+    }
+
+    private static final int TICK_MS = 10;
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    private final Profile profile;
+    private final ScheduledExecutorService scheduler;
+    private final Listener listener;
+    private final Random random;
+    private final String[] tagIds;
+
+    // Buffered reads, a ring of population indexes with their RSSI and antenna
+    private final int[] buffered = new int[BUFFER_CAPACITY];
+    private final short[] bufferedRssi = new short[BUFFER_CAPACITY];
+    private final short[] bufferedAntenna = new short[BUFFER_CAPACITY];
+    private int head = 0;
+    private int count = 0;
+    private long overflowed = 0;
+
+    private volatile boolean connected = false;
+    private ScheduledFuture<?> inventoryTask = null;
+    private ScheduledFuture<?> triggerTask = null;
+    private long lastTick = 0;
+    private double owed = 0;
+    private int previous = -1;
+    private long generated = 0;
+
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            generate();
+        }
+    };
+
+    SimulatedReaderBackend(Profile profile, ScheduledExecutorService scheduler, Listener listener) {
+        this.profile = profile;
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.random = profile.seed != 0 ? new Random(profile.seed) : new Random();
+        this.tagIds = new String[Math.max(1, profile.population)];
+        char[] id = new char[24];
+        for (int i = 0; i < tagIds.length; i++) {
+            // SGTIN-96 header, random company and item, serial from the index
+            long high = random.nextLong();
+            for (int c = 0; c < 12; c++) {
+                id[c] = Character.toUpperCase(Character.forDigit((int) ((high >>> (44 - c * 4)) & 0xF), 16));
+            }
+            id[0] = '3';
+            id[1] = '0';
+            for (int c = 0; c < 12; c++) {
+                id[12 + c] = Character.toUpperCase(Character.forDigit((int) (((long) i >>> (44 - c * 4)) & 0xF), 16));
+            }
+            tagIds[i] = new String(id);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Simulated reader";
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    synchronized void connect() {
+        connected = true;
+        if (profile.triggerInterval > 0 && triggerTask == null) {
+            triggerTask = scheduler.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    if (!connected) return;
+                    listener.onTrigger(true);
+                    scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (connected) {
+                                listener.onTrigger(false);
+                            }
+                        }
+                    }, profile.triggerHold, TimeUnit.MILLISECONDS);
+                }
+            }, profile.triggerInterval, profile.triggerInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void disconnect() {
+        connected = false;
+        cancelInventory();
+        if (triggerTask != null) {
+            triggerTask.cancel(false);
+            triggerTask = null;
+        }
+        count = 0;
+    }
+
+    @Override
+    public synchronized void startInventory() throws Exception {
+        if (!connected) {
+            throw new Exception("simulated reader not connected");
+        }
+        if (inventoryTask != null) return;
+        lastTick = nanoTime();
+        owed = 0;
+        inventoryTask = scheduler.scheduleAtFixedRate(tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        listener.onInventory(true);
+    }
+
+    @Override
+    public synchronized void stopInventory() throws Exception {
+        if (cancelInventory()) {
+            listener.onInventory(false);
+        }
+    }
+
+    @Override
+    public synchronized int fetch(TagRead[] reads, int max) {
+        int length = Math.min(Math.min(count, max), reads.length);
+        for (int i = 0; i < length; i++) {
+            int slot = (head + i) & (BUFFER_CAPACITY - 1);
+            TagRead read = reads[i];
+            read.clear();
+            read.tagId = tagIds[buffered[slot]];
+            read.rssi = bufferedRssi[slot];
+            read.antenna = bufferedAntenna[slot];
+            read.seenCount = 1;
+        }
+        head = (head + length) & (BUFFER_CAPACITY - 1);
+        count -= length;
+        return length;
+    }
+
+    synchronized long getGenerated() {
+        return generated;
+    }
+
+    /**
+     * @return reads lost because the buffer was full when they were generated
+     */
+    synchronized long getOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return monotonic time the read rate is paced by, replaced in tests with the scheduler's
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private boolean cancelInventory() {
+        if (inventoryTask == null) return false;
+        inventoryTask.cancel(false);
+        inventoryTask = null;
+        return true;
+    }
+
+    private void generate() {
+        boolean disconnected = false;
+        synchronized (this) {
+            if (inventoryTask == null) return;
+            long now = nanoTime();
+            owed += profile.readRate * ((now - lastTick) / 1e9);
+            lastTick = now;
+            int reads = (int) owed;
+            owed -= reads;
+            for (int i = 0; i < reads; i++) {
+                int index = (previous >= 0 && random.nextDouble() < profile.duplicateRatio)
+                        ? previous : random.nextInt(tagIds.length);
+                previous = index;
+                generated++;
+                if (count == BUFFER_CAPACITY) {
+                    overflowed++;
+                    continue;
+                }
+                int slot = (head + count) & (BUFFER_CAPACITY - 1);
+                buffered[slot] = index;
+                double rssi = profile.rssiMean + random.nextGaussian() * profile.rssiSpread;
+                bufferedRssi[slot] = (short) Math.max(-100, Math.min(-20, Math.round(rssi)));
+                bufferedAntenna[slot] = (short) (1 + random.nextInt(Math.max(1, profile.antennas)));
+                count++;
+            }
+            if (profile.disconnectRate > 0 && random.nextDouble() < profile.disconnectRate * TICK_MS / 60000.0) {
+                disconnected = true;
+                connected = false;
+                cancelInventory();
+                count = 0;
+            }
+        }
+        // Notify outside the lock, the listener calls back into fetch
+        if (disconnected) {
+            listener.onDisconnect();
+        } else {
+            listener.onReadNotify();
+        }
+    }
+}
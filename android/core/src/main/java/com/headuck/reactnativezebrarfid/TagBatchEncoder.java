@@ -0,0 +1,155 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Packs a batch of tags into a byte buffer for transfer to JS as a single base64 string.
+ *
+ * Layout, multi-byte values big-endian:
+ * <pre>
+ *   version   u8    (2)
+ *   fields    u8    bit 0 RSSI, bit 1 antenna, bit 2 time
+ *   count     u16
+ *   readerLen u8    number of bytes of the reader name
+ *   reader    UTF-8 name of the reader the tags were read by
+ *   baseTime  i64   ms since epoch, only with the time field
+ *   count x record:
+ *     length  u8    number of hex characters of the tag ID
+ *     id      (length + 1) / 2 bytes, odd lengths padded with a trailing zero nibble
+ *     rssi    i8    with the RSSI field
+ *     antenna u8    with the antenna field
+ *     time    u32   ms after baseTime, with the time field
+ * </pre>
+ * The buffer is reused between batches, so encoding does not allocate per tag.
+ */
+class TagBatchEncoder {
+
+    static final int VERSION = 2;
+
+    static final int FIELD_RSSI = 1;
+    static final int FIELD_ANTENNA = 1 << 1;
+    static final int FIELD_TIME = 1 << 2;
+
+    static final int MAX_COUNT = 0xFFFF;
+
+    private static final int MAX_ID_CHARS = 0xFF;
+    private static final int MAX_READER_BYTES = 0xFF;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private byte[] buffer = new byte[4096];
+    private int position = 0;
+    private int count = 0;
+    private int fields = 0;
+    private long baseTime = 0;
+    // Encoded name of the last reader, batches of one encoder are usually from the same reader
+    private String reader = null;
+    private byte[] readerBytes = new byte[0];
+
+    /**
+     * Starts a new batch, discarding any tags not yet taken.
+     *
+     * @param reader name of the reader the tags are read by, truncated to 255 bytes
+     */
+    void begin(String reader, int fields, long baseTime) {
+        if (!reader.equals(this.reader)) {
+            byte[] name = reader.getBytes(UTF_8);
+            int length = Math.min(name.length, MAX_READER_BYTES);
+            // Never cut a multi-byte character
+            while (length < name.length && (name[length] & 0xC0) == 0x80) {
+                length--;
+            }
+            this.readerBytes = length < name.length ? Arrays.copyOf(name, length) : name;
+            this.reader = reader;
+        }
+        this.fields = fields;
+        this.baseTime = baseTime;
+        count = 0;
+        position = 0;
+        ensureCapacity(13 + readerBytes.length);
+        buffer[position++] = (byte) VERSION;
+        buffer[position++] = (byte) fields;
+        position += 2; // count, written when the batch is taken
+        buffer[position++] = (byte) readerBytes.length;
+        System.arraycopy(readerBytes, 0, buffer, position, readerBytes.length);
+        position += readerBytes.length;
+        if ((fields & FIELD_TIME) != 0) {
+            writeLong(baseTime);
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == MAX_COUNT;
+    }
+
+    /**
+     * Adds a tag. Tag IDs that are not hex or too long are skipped.
+     *
+     * @return false if the tag was skipped
+     */
+    boolean add(CharSequence tagId, int rssi, int antenna, long time) {
+        int length = tagId.length();
+        if (length == 0 || length > MAX_ID_CHARS || isFull()) return false;
+        ensureCapacity(1 + (length + 1) / 2 + 6);
+        int start = position;
+        buffer[position++] = (byte) length;
+        for (int i = 0; i < length; i += 2) {
+            int high = EpcTable.nibble(tagId.charAt(i));
+            int low = (i + 1 < length) ? EpcTable.nibble(tagId.charAt(i + 1)) : 0;
+            if (high < 0 || low < 0) {
+                position = start;
+                return false;
+            }
+            buffer[position++] = (byte) ((high << 4) | low);
+        }
+        if ((fields & FIELD_RSSI) != 0) {
+            buffer[position++] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, rssi));
+        }
+        if ((fields & FIELD_ANTENNA) != 0) {
+            buffer[position++] = (byte) antenna;
+        }
+        if ((fields & FIELD_TIME) != 0) {
+            long offset = Math.max(0, Math.min(0xFFFFFFFFL, time - baseTime));
+            writeInt((int) offset);
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * Completes the batch header.
+     *
+     * @return number of valid bytes in {@link #getBuffer()}
+     */
+    int finish() {
+        buffer[2] = (byte) (count >>> 8);
+        buffer[3] = (byte) count;
+        return position;
+    }
+
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeInt(int value) {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces tag results into batches per reader that are flushed at most every interval ms,
+ * or as soon as the batch of a reader reaches the maximum number of tags.
+ *
+ * A zero interval disables time based flushing, a zero maximum disables size based flushing.
+ * With both at zero the batcher is disabled and callers dispatch tags directly.
+ */
+class TagBatcher {
+
+    interface Listener {
+        /**
+         * @param since System.nanoTime() of the read notification of the oldest tag in the batch
+         */
+        void onBatch(String reader, ArrayList<String> tags, long since);
+    }
+
+    /**
+     * Tags of one reader waiting for the next flush.
+     */
+    private static class Pending {
+        ArrayList<String> tags = new ArrayList<>();
+        long since = 0;
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Listener listener;
+
+    private int flushInterval = 0;
+    private int flushMaxTags = 0;
+
+    // In the order readers first had tags pending, kept across flushes
+    private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> flushTask = null;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    TagBatcher(ScheduledExecutorService scheduler, Listener listener) {
+        this.scheduler = scheduler;
+        this.listener = listener;
+    }
+
+    synchronized void configure(int flushInterval, int flushMaxTags) {
+        flush();
+        this.flushInterval = Math.max(0, flushInterval);
+        this.flushMaxTags = Math.max(0, flushMaxTags);
+    }
+
+    synchronized boolean isEnabled() {
+        return flushInterval > 0 || flushMaxTags > 0;
+    }
+
+    /**
+     * @param reader name of the reader the tag was read by
+     * @param notifyTime System.nanoTime() of the read notification the tag was drained for
+     */
+    synchronized void add(String reader, String tag, long notifyTime) {
+        Pending batch = pending.get(reader);
+        if (batch == null) {
+            batch = new Pending();
+            pending.put(reader, batch);
+        }
+        if (batch.tags.isEmpty() || notifyTime - batch.since < 0) {
+            batch.since = notifyTime;
+        }
+        batch.tags.add(tag);
+        if (flushMaxTags > 0 && batch.tags.size() >= flushMaxTags) {
+            flush(reader, batch);
+        } else if (flushInterval > 0 && flushTask == null) {
+            flushTask = scheduler.schedule(flushRunnable, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the pending tags of every reader, one batch per reader.
+     */
+    synchronized void flush() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void flush(String reader, Pending batch) {
+        if (batch.tags.isEmpty()) return;
+        ArrayList<String> tags = batch.tags;
+        batch.tags = new ArrayList<>(tags.size());
+        listener.onBatch(reader, tags, batch.since);
+    }
+}
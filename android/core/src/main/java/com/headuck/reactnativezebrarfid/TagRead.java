@@ -0,0 +1,59 @@
+package com.headuck.reactnativezebrarfid;
+
+/**
+ * One tag report as seen by the read pipeline, independent of the reader backend.
+ *
+ * Instances are flyweights: a backend fills a caller-owned array of them on every fetch, so
+ * values are only valid until the next fetch into the same array.
+ */
+final class TagRead {
+
+    // Access operation that produced the report, OP_NONE for inventory reads
+    static final int OP_NONE = 0;
+    static final int OP_READ = 1;
+    static final int OP_WRITE = 2;
+    static final int OP_LOCK = 3;
+    static final int OP_OTHER = 4;
+
+    // Access errors the pipeline reports specially
+    static final int ERROR_NONE = 0;
+    static final int ERROR_MEMORY_LOCKED = 1;
+    static final int ERROR_MEMORY_OVERRUN = 2;
+    static final int ERROR_OTHER = 3;
+
+    // Memory bank of a read report
+    static final int BANK_NONE = 0;
+    static final int BANK_RESERVED = 1;
+    static final int BANK_EPC = 2;
+    static final int BANK_TID = 3;
+    static final int BANK_USER = 4;
+
+    String tagId;
+    String memoryBankData;
+    short rssi;
+    short antenna;
+    short phase;
+    int seenCount;
+    // Relative distance of a locate report, 0 to 100, -1 if the report is not one
+    short distance;
+
+    int opCode;
+    int opError;
+    int memoryBank;
+    // Backend description of a failed access, null on success
+    String opStatus;
+
+    void clear() {
+        tagId = null;
+        memoryBankData = null;
+        rssi = 0;
+        antenna = 0;
+        phase = 0;
+        seenCount = 0;
+        distance = -1;
+        opCode = OP_NONE;
+        opError = ERROR_NONE;
+        memoryBank = BANK_NONE;
+        opStatus = null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.Arrays;
+
+/**
+ * Times the path from a trigger press to the first result of the operation it starts, on the
+ * monotonic clock, so a slow trigger can be put down to the command queue and reader config,
+ * the radio starting, or the first read.
+ *
+ * Stages are marked from the reader event thread and the scanner thread. A trace ends at its
+ * first result, or at the trigger release if none came, and its intervals are kept in rolling
+ * windows over the last operations.
+ */
+class TriggerTrace {
+
+    // Stages, in the order they are reached
+    static final int PRESSED = 0;
+    static final int ISSUED = 1;
+    static final int STARTED = 2;
+    static final int FIRST_RESULT = 3;
+    private static final int STAGES = 4;
+
+    // Intervals of a trace, in microseconds
+    static final int QUEUE_AND_CONFIG = 0;  // press to command issue
+    static final int RADIO_START = 1;       // command issue to inventory start event
+    static final int FIRST_READ = 2;        // inventory start, or command issue, to first result
+    static final int TOTAL = 3;             // press to first result
+    static final int INTERVALS = 4;
+
+    private final long[] marks = new long[STAGES];
+    private volatile boolean open = false;
+    private final Window[] windows = new Window[INTERVALS];
+
+    TriggerTrace(int window) {
+        for (int i = 0; i < INTERVALS; i++) {
+            windows[i] = new Window(window);
+        }
+    }
+
+    synchronized void begin(long nanos) {
+        Arrays.fill(marks, 0);
+        marks[PRESSED] = nanos;
+        open = true;
+    }
+
+    /**
+     * Marks a stage of the open trace, only its first time.
+     */
+    synchronized void mark(int stage, long nanos) {
+        if (open && marks[stage] == 0) {
+            marks[stage] = nanos;
+        }
+    }
+
+    /**
+     * @return true while a trace waits for its first result, cheap enough for the read path
+     */
+    boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Ends the open trace and adds its intervals to the windows.
+     *
+     * @param intervals receives the intervals in microseconds, -1 for stages not reached
+     * @return false if no trace was open
+     */
+    synchronized boolean end(long[] intervals) {
+        if (!open) return false;
+        open = false;
+        long first = marks[FIRST_RESULT];
+        long readFrom = marks[STARTED] != 0 ? marks[STARTED] : marks[ISSUED];
+        intervals[QUEUE_AND_CONFIG] = between(marks[PRESSED], marks[ISSUED]);
+        intervals[RADIO_START] = between(marks[ISSUED], marks[STARTED]);
+        intervals[FIRST_READ] = between(readFrom, first);
+        intervals[TOTAL] = between(marks[PRESSED], first);
+        for (int i = 0; i < INTERVALS; i++) {
+            if (intervals[i] >= 0) {
+                windows[i].add(intervals[i]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return rolling window of an interval
+     */
+    Window getWindow(int interval) {
+        return windows[interval];
+    }
+
+    synchronized void reset() {
+        for (Window window : windows) {
+            window.clear();
+        }
+    }
+
+    private static long between(long from, long to) {
+        return (from != 0 && to != 0 && to >= from) ? (to - from) / 1000 : -1;
+    }
+
+    /**
+     * The last samples of an interval. Operations are few, so percentiles sort a copy.
+     */
+    static final class Window {
+        private final long[] samples;
+        private int next = 0;
+        private int size = 0;
+
+        Window(int capacity) {
+            samples = new long[capacity];
+        }
+
+        synchronized void add(long micros) {
+            samples[next] = micros;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) size++;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * @param percentile 0 to 100
+         * @return the nearest-rank percentile in microseconds, 0 if the window is empty
+         */
+        synchronized long getPercentile(double percentile) {
+            if (size == 0) return 0;
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int rank = Math.max(1, (int) Math.ceil(size * percentile / 100));
+            return sorted[Math.min(rank, size) - 1];
+        }
+
+        synchronized void clear() {
+            next = 0;
+            size = 0;
+        }
+    }
+}
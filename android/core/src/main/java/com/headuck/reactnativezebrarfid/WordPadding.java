@@ -0,0 +1,47 @@
+package com.headuck.reactnativezebrarfid;
+
+/**
+ * Aligns hex tag data to the 16-bit words that memory banks are accessed in.
+ */
+final class WordPadding {
+
+    static final int CHARS_PER_WORD = 4;
+
+    private WordPadding() {
+    }
+
+    /**
+     * @return number of characters missing from the last word
+     */
+    static int padding(int chars) {
+        int rest = chars % CHARS_PER_WORD;
+        return rest > 0 ? CHARS_PER_WORD - rest : 0;
+    }
+
+    /**
+     * @return number of words needed to hold chars characters
+     */
+    static int words(int chars) {
+        return (chars + CHARS_PER_WORD - 1) / CHARS_PER_WORD;
+    }
+
+    /**
+     * @return data with zeros appended up to a whole number of words
+     */
+    static String pad(String data) {
+        int padding = padding(data.length());
+        if (padding == 0) return data;
+        StringBuilder padded = new StringBuilder(data.length() + padding).append(data);
+        for (int i = 0; i < padding; i++) {
+            padded.append('0');
+        }
+        return padded.toString();
+    }
+
+    /**
+     * @return data cut down to whole words
+     */
+    static String truncate(String data) {
+        return data.substring(0, data.length() - data.length() % CHARS_PER_WORD);
+    }
+}
@@ -0,0 +1,67 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BankReadAssemblerTest {
+
+    private static final int TID_AND_USER = BankReadAssembler.bit(TagRead.BANK_TID) | BankReadAssembler.bit(TagRead.BANK_USER);
+
+    private static TagRead read(String tagId, int bank, String data, String status) {
+        TagRead tag = new TagRead();
+        tag.clear();
+        tag.tagId = tagId;
+        tag.opCode = TagRead.OP_READ;
+        tag.memoryBank = bank;
+        tag.memoryBankData = data;
+        tag.opStatus = status;
+        return tag;
+    }
+
+    @Test
+    public void completesOnceAllBanksReported() {
+        BankReadAssembler assembler = new BankReadAssembler();
+        assembler.configure(TID_AND_USER);
+        assertTrue(assembler.reads(TagRead.BANK_TID));
+        assertFalse(assembler.reads(TagRead.BANK_EPC));
+
+        assertNull(assembler.add(read("E2", TagRead.BANK_TID, "E2801160", null)));
+        assertNull(assembler.add(read("E3", TagRead.BANK_USER, "0000", null)));
+        BankReadAssembler.Record record = assembler.add(read("E2", TagRead.BANK_USER, null, "ACCESS_TAG_MEMORY_LOCKED_ERROR"));
+        assertEquals("E2", record.tagId);
+        assertEquals("E2801160", record.tid);
+        assertNull(record.user);
+        assertNull(record.tidError);
+        assertEquals("ACCESS TAG MEMORY LOCKED ERROR", record.userError);
+
+        // A new round of the same tag starts a new record
+        assertNull(assembler.add(read("E2", TagRead.BANK_TID, "E2801160", null)));
+
+        ArrayList<BankReadAssembler.Record> incomplete = assembler.flush();
+        assertEquals(2, incomplete.size());
+        assertTrue(assembler.flush().isEmpty());
+    }
+
+    @Test
+    public void ignoresOtherReports() {
+        BankReadAssembler assembler = new BankReadAssembler();
+        assembler.configure(BankReadAssembler.bit(TagRead.BANK_TID));
+        TagRead inventory = read("E2", TagRead.BANK_TID, "E2801160", null);
+        inventory.opCode = TagRead.OP_NONE;
+        assertNull(assembler.add(inventory));
+        assertNull(assembler.add(read("E2", TagRead.BANK_USER, "0000", null)));
+        BankReadAssembler.Record record = assembler.add(read("E2", TagRead.BANK_TID, "E2801160", null));
+        assertEquals("E2", record.tagId);
+        assertTrue(assembler.flush().isEmpty());
+
+        assembler.configure(0);
+        assertFalse(assembler.isEnabled());
+        assertNull(assembler.add(read("E2", TagRead.BANK_TID, "E2801160", null)));
+    }
+}
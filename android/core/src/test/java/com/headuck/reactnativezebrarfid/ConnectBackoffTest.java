@@ -0,0 +1,74 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectBackoffTest {
+
+    @Test
+    public void growsWithinJitterBoundsUpToTheCap() {
+        // Full delays before jitter: 500, 1000, 2000, 4000, 8000, then capped at 10000
+        long[] full = {500, 1000, 2000, 4000, 8000, 10000, 10000};
+        Random random = new Random(42);
+        for (int run = 0; run < 100; run++) {
+            ConnectBackoff backoff = new ConnectBackoff(full.length + 1, 500, 10000, random);
+            backoff.start(1000);
+            for (long delay : full) {
+                backoff.attempt();
+                long next = backoff.nextDelay();
+                assertTrue(next + " below half of " + delay, next >= delay / 2);
+                assertTrue(next + " above " + delay, next <= delay);
+                assertTrue(next <= 10000);
+            }
+            backoff.attempt();
+            assertEquals(full.length + 1, backoff.getAttempts());
+            assertEquals(-1, backoff.nextDelay());
+        }
+    }
+
+    @Test
+    public void randomHalfVaries() {
+        ConnectBackoff backoff = new ConnectBackoff(2, 1000, 10000, new Random(7));
+        backoff.start(0);
+        backoff.attempt();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long delay = backoff.nextDelay();
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        // Spread over most of [500, 1000], so retries do not run in lockstep
+        assertTrue(min < 550);
+        assertTrue(max > 950);
+    }
+
+    @Test
+    public void startResetsAttempts() {
+        ConnectBackoff backoff = new ConnectBackoff(1, 500, 10000, new Random(1));
+        backoff.start(1000);
+        backoff.attempt();
+        assertEquals(-1, backoff.nextDelay());
+
+        backoff.start(5000);
+        assertEquals(0, backoff.getAttempts());
+        assertEquals(5000, backoff.getStartTime());
+        backoff.attempt();
+        assertEquals(-1, backoff.nextDelay());
+    }
+
+    @Test
+    public void largeAttemptCountsStayCapped() {
+        ConnectBackoff backoff = new ConnectBackoff(100, 500, 10000, new Random(3));
+        backoff.start(0);
+        for (int i = 0; i < 99; i++) {
+            backoff.attempt();
+            long delay = backoff.nextDelay();
+            assertTrue(delay >= 0 && delay <= 10000);
+        }
+    }
+}
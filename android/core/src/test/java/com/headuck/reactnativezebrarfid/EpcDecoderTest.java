@@ -0,0 +1,115 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Examples from the GS1 EPC Tag Data Standard.
+ */
+public class EpcDecoderTest {
+
+    private final EpcDecoder decoder = new EpcDecoder();
+
+    private static String group(long key) {
+        StringBuilder out = new StringBuilder();
+        EpcDecoder.appendGroup(out, key);
+        return out.toString();
+    }
+
+    private String serial() {
+        StringBuilder out = new StringBuilder();
+        decoder.appendSerial(out);
+        return out.toString();
+    }
+
+    @Test
+    public void sgtin96() {
+        assertTrue(decoder.decode("3074257BF7194E4000001A85"));
+        assertEquals(EpcDecoder.SGTIN_96, decoder.scheme);
+        assertEquals(3, decoder.filter);
+        assertEquals(614141, decoder.companyPrefix);
+        assertEquals(7, decoder.companyPrefixDigits);
+        assertEquals(812345, decoder.reference);
+        assertEquals(6789, decoder.serial);
+        assertEquals(80614141123458L, decoder.gtin());
+        assertEquals("6789", serial());
+        assertEquals("80614141123458", group(decoder.groupKey(EpcDecoder.GROUP_CLASS)));
+        assertEquals("0614141", group(decoder.groupKey(EpcDecoder.GROUP_COMPANY_PREFIX)));
+    }
+
+    @Test
+    public void sgtin96LowerCase() {
+        assertTrue(decoder.decode("3074257bf7194e4000001a85"));
+        assertEquals(80614141123458L, decoder.gtin());
+    }
+
+    @Test
+    public void sgtin198() {
+        assertTrue(decoder.decode("3674257BF6B7A659B2C2BF1000000000000000000000000000"));
+        assertEquals(EpcDecoder.SGTIN_198, decoder.scheme);
+        assertEquals(70614141123451L, decoder.gtin());
+        assertEquals("32a/b", serial());
+    }
+
+    @Test
+    public void sscc96() {
+        assertTrue(decoder.decode("3174257BF4499602D2000000"));
+        assertEquals(EpcDecoder.SSCC_96, decoder.scheme);
+        assertEquals(106141412345678908L, decoder.sscc());
+        assertEquals("0614141", group(decoder.groupKey(EpcDecoder.GROUP_CLASS)));
+    }
+
+    @Test
+    public void grai96() {
+        assertTrue(decoder.decode("3374257BF40C0E400000162E"));
+        assertEquals(EpcDecoder.GRAI_96, decoder.scheme);
+        assertEquals(614141123452L, decoder.graiAssetType());
+        assertEquals("5678", serial());
+        assertEquals("00614141123452", group(decoder.groupKey(EpcDecoder.GROUP_CLASS)));
+    }
+
+    @Test
+    public void giai96() {
+        assertTrue(decoder.decode("3474257BF400000000000C0E"));
+        assertEquals(EpcDecoder.GIAI_96, decoder.scheme);
+        assertEquals("3086", serial());
+    }
+
+    @Test
+    public void groupsIgnoreTheScheme() {
+        // SGTIN-96 with the GTIN of the SGTIN-198 example
+        assertTrue(decoder.decode("3074257BF6B7A64000001A85"));
+        long sgtin96 = decoder.groupKey(EpcDecoder.GROUP_CLASS);
+        long prefix96 = decoder.groupKey(EpcDecoder.GROUP_COMPANY_PREFIX);
+        assertTrue(decoder.decode("3674257BF6B7A659B2C2BF1000000000000000000000000000"));
+        assertEquals(sgtin96, decoder.groupKey(EpcDecoder.GROUP_CLASS));
+        assertEquals(EpcDecoder.KIND_GTIN, EpcDecoder.groupKind(sgtin96));
+        assertEquals("gtin", EpcDecoder.kindName(EpcDecoder.groupKind(sgtin96)));
+        assertEquals("70614141123451", group(sgtin96));
+
+        // One company prefix across schemes
+        assertTrue(decoder.decode("3174257BF4499602D2000000"));
+        assertEquals(prefix96, decoder.groupKey(EpcDecoder.GROUP_COMPANY_PREFIX));
+        assertEquals(prefix96, decoder.groupKey(EpcDecoder.GROUP_CLASS));
+        assertEquals("company_prefix", EpcDecoder.kindName(EpcDecoder.groupKind(prefix96)));
+
+        // Asset types do not share groups with GTINs of the same digits
+        assertTrue(decoder.decode("3374257BF40C0E400000162E"));
+        long assetType = decoder.groupKey(EpcDecoder.GROUP_CLASS);
+        assertEquals(EpcDecoder.KIND_ASSET_TYPE, EpcDecoder.groupKind(assetType));
+        assertEquals(prefix96, decoder.groupKey(EpcDecoder.GROUP_COMPANY_PREFIX));
+    }
+
+    @Test
+    public void rejectsOtherEncodings() {
+        assertFalse(decoder.decode("E28011600000000000000000"));
+        assertEquals(EpcDecoder.NONE, decoder.scheme);
+        assertEquals(0, decoder.groupKey(EpcDecoder.GROUP_CLASS));
+        assertFalse(decoder.decode("3074257BF7194E40"));
+        assertFalse(decoder.decode("3074257BF7194E4000001AXX"));
+        assertFalse(decoder.decode(""));
+    }
+}
@@ -0,0 +1,73 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EpcTableTest {
+
+    private static String id(int i) {
+        return id(0, i);
+    }
+
+    private static String id(int set, int i) {
+        return String.format("E28%05X%016X", set, (long) i * 0x9E3779B9L);
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        EpcTable table = new EpcTable();
+        int initial = table.capacity();
+        int count = initial * 8 + 3;
+        for (int i = 0; i < count; i++) {
+            assertEquals(-(i + 1), table.add(id(i)));
+        }
+        assertTrue(table.capacity() > initial);
+        assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, table.find(id(i)));
+            assertEquals(i, table.add(id(i)));
+            assertEquals(id(i), table.get(i));
+        }
+        assertEquals(count, table.size());
+        assertEquals(-1, table.find(id(count)));
+    }
+
+    @Test
+    public void growsAtExactCapacity() {
+        // The add that triggers growth must land in a slot of the grown table. Whether a wrong
+        // slot is still found depends on the hash, so try many sets of IDs.
+        for (int set = 0; set < 256; set++) {
+            EpcTable table = new EpcTable();
+            int initial = table.capacity();
+            for (int i = 0; i <= initial; i++) {
+                table.add(id(set, i));
+            }
+            for (int i = 0; i <= initial; i++) {
+                assertEquals("set " + set, i, table.find(id(set, i)));
+            }
+        }
+    }
+
+    @Test
+    public void mixesPackedAndOverflowIds() {
+        EpcTable table = new EpcTable();
+        String longId = "E2801160000000000000000000000000000000000000";
+        assertEquals(-1, table.add("E2"));
+        assertEquals(-2, table.add(longId));
+        assertEquals(-3, table.add("not hex"));
+        assertEquals(-4, table.add("e2801160"));
+        assertEquals(0, table.find("e2"));
+        assertEquals(1, table.find(longId));
+        assertEquals(2, table.add("not hex"));
+        assertEquals("E2801160", table.get(3));
+        assertEquals(longId, table.get(1));
+        assertEquals(0, table.length(1));
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(-1, table.find("E2"));
+        assertEquals(-1, table.find(longId));
+    }
+}
@@ -0,0 +1,209 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventDispatcherTest {
+
+    /**
+     * Records emitted events. The first emit blocks until released, so the queue can be filled
+     * while the consumer is busy.
+     */
+    private static class Recorder implements EventDispatcher.Emitter {
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> emitted = new ArrayList<>();
+        long dropped = 0;
+        int expected;
+        CountDownLatch done;
+
+        Recorder(int expected) {
+            this.expected = expected;
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void emit(String name, Object data) {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                emitted.add(name);
+            }
+            done.countDown();
+        }
+
+        @Override
+        public synchronized void onDropped(long dropped) {
+            this.dropped += dropped;
+        }
+
+        synchronized List<String> getEmitted() {
+            return new ArrayList<>(emitted);
+        }
+    }
+
+    private EventDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    private Recorder startBusy(EventDispatcher.OverflowPolicy policy, int expected) throws InterruptedException {
+        return startBusy(policy, expected, true, true);
+    }
+
+    /**
+     * Starts a dispatcher of capacity 2 whose consumer is busy emitting A, with B and C queued.
+     */
+    private Recorder startBusy(EventDispatcher.OverflowPolicy policy, int expected, boolean droppableB, boolean droppableC) throws InterruptedException {
+        Recorder recorder = new Recorder(expected);
+        dispatcher = new EventDispatcher(2, recorder);
+        dispatcher.setOverflowPolicy(policy);
+        dispatcher.start();
+        assertTrue(dispatcher.post("A", null, true));
+        assertTrue(recorder.busy.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.post("B", null, droppableB));
+        assertTrue(dispatcher.post("C", null, droppableC));
+        assertEquals(2, dispatcher.getQueuedCount());
+        return recorder;
+    }
+
+    private static void awaitDone(Recorder recorder) throws InterruptedException {
+        recorder.release.countDown();
+        assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dropOldestEvictsQueuedEvent() throws InterruptedException {
+        Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_OLDEST, 3);
+        assertTrue(dispatcher.post("D", null, true));
+        assertEquals(1, dispatcher.getDroppedCount());
+        awaitDone(recorder);
+        assertEquals(Arrays.asList("A", "C", "D"), recorder.getEmitted());
+    }
+
+    @Test
+    public void dropNewestRejectsPostedEvent() throws InterruptedException {
+        Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_NEWEST, 3);
+        assertFalse(dispatcher.post("D", null, true));
+        assertEquals(1, dispatcher.getDroppedCount());
+        awaitDone(recorder);
+        assertEquals(Arrays.asList("A", "B", "C"), recorder.getEmitted());
+    }
+
+    @Test
+    public void blockWaitsForSpace() throws InterruptedException {
+        final Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.BLOCK, 4);
+        final boolean[] posted = new boolean[1];
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                posted[0] = dispatcher.post("D", null, true);
+            }
+        });
+        producer.start();
+        producer.join(100);
+        assertTrue("producer should wait while the queue is full", producer.isAlive());
+
+        awaitDone(recorder);
+        producer.join(5000);
+        assertTrue(posted[0]);
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertEquals(Arrays.asList("A", "B", "C", "D"), recorder.getEmitted());
+    }
+
+    @Test
+    public void reportsDroppedOnceDrained() throws InterruptedException {
+        Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_NEWEST, 3);
+        dispatcher.post("D", null, true);
+        dispatcher.post("E", null, true);
+        awaitDone(recorder);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            synchronized (recorder) {
+                if (recorder.dropped == 2 || System.currentTimeMillis() > deadline) break;
+            }
+            Thread.sleep(10);
+        }
+        synchronized (recorder) {
+            assertEquals(2, recorder.dropped);
+        }
+    }
+
+    @Test
+    public void dropOldestKeepsControlEvents() throws InterruptedException {
+        // Status event queued before a tag event, the tag event is evicted
+        Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_OLDEST, 3, false, true);
+        assertTrue(dispatcher.post("D", null, true));
+        assertEquals(1, dispatcher.getDroppedCount());
+        awaitDone(recorder);
+        assertEquals(Arrays.asList("A", "B", "D"), recorder.getEmitted());
+    }
+
+    @Test
+    public void dropOldestDropsNewTagWhenOnlyControlEventsQueued() throws InterruptedException {
+        Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_OLDEST, 3, false, false);
+        assertFalse(dispatcher.post("D", null, true));
+        assertEquals(1, dispatcher.getDroppedCount());
+        awaitDone(recorder);
+        assertEquals(Arrays.asList("A", "B", "C"), recorder.getEmitted());
+    }
+
+    @Test
+    public void dropNewestQueuesControlEvents() throws InterruptedException {
+        Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_NEWEST, 3, true, false);
+        assertTrue(dispatcher.post("S", null, false));
+        assertEquals(1, dispatcher.getDroppedCount());
+        awaitDone(recorder);
+        assertEquals(Arrays.asList("A", "C", "S"), recorder.getEmitted());
+    }
+
+    @Test
+    public void controlEventWaitsWhenNothingDroppable() throws InterruptedException {
+        final Recorder recorder = startBusy(EventDispatcher.OverflowPolicy.DROP_OLDEST, 4, false, false);
+        final boolean[] posted = new boolean[1];
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                posted[0] = dispatcher.post("S", null, false);
+            }
+        });
+        producer.start();
+        producer.join(100);
+        assertTrue("control event should wait for space", producer.isAlive());
+
+        awaitDone(recorder);
+        producer.join(5000);
+        assertTrue(posted[0]);
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertEquals(Arrays.asList("A", "B", "C", "S"), recorder.getEmitted());
+    }
+
+    @Test
+    public void dropsWhenStopped() {
+        Recorder recorder = new Recorder(0);
+        dispatcher = new EventDispatcher(1, recorder);
+        dispatcher.setOverflowPolicy(EventDispatcher.OverflowPolicy.BLOCK);
+        assertTrue(dispatcher.post("A", null, true));
+        // Not started, a full queue must not block the producer
+        assertFalse(dispatcher.post("B", null, true));
+        assertEquals(1, dispatcher.getDroppedCount());
+    }
+}
@@ -0,0 +1,171 @@
+package com.headuck.reactnativezebrarfid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler on a virtual clock. Tasks only run from {@link #advance(long)}, on the calling
+ * thread, in the order they are due.
+ */
+class FakeScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final List<Task> tasks = new ArrayList<>();
+    private long now = 0;
+    private boolean shutdown = false;
+
+    final class Task implements ScheduledFuture<Object>, Comparable<Delayed> {
+        final Runnable command;
+        final long period;
+        long due;
+        boolean cancelled = false;
+        boolean done = false;
+
+        Task(Runnable command, long due, long period) {
+            this.command = command;
+            this.due = due;
+            this.period = period;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(due - now, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done) return false;
+            cancelled = true;
+            tasks.remove(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        @Override
+        public Object get() {
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+
+    /**
+     * @return virtual time in ms
+     */
+    long now() {
+        return now;
+    }
+
+    /**
+     * @return tasks waiting to run, periodic ones included
+     */
+    int pending() {
+        return tasks.size();
+    }
+
+    /**
+     * Moves the clock forward, running every task that falls due on the way.
+     */
+    void advance(long millis) {
+        long end = now + millis;
+        while (true) {
+            Task next = null;
+            for (Task task : tasks) {
+                if (task.due <= end && (next == null || task.due < next.due)) {
+                    next = task;
+                }
+            }
+            if (next == null) break;
+            now = next.due;
+            if (next.period > 0) {
+                next.due += next.period;
+            } else {
+                tasks.remove(next);
+                next.done = true;
+            }
+            next.command.run();
+        }
+        now = end;
+    }
+
+    private Task add(Runnable command, long delay, long period, TimeUnit unit) {
+        Task task = new Task(command, now + unit.toMillis(Math.max(0, delay)), unit.toMillis(period));
+        tasks.add(task);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return add(command, delay, 0, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return add(command, initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return add(command, initialDelay, delay, unit);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        add(command, 0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        tasks.clear();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+}
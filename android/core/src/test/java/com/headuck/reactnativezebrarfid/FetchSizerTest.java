@@ -0,0 +1,36 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FetchSizerTest {
+
+    @Test
+    public void adaptsWithinBounds() {
+        FetchSizer sizer = new FetchSizer(16, 128, 32);
+        sizer.update(32);
+        assertEquals(64, sizer.get());
+        sizer.update(64);
+        sizer.update(128);
+        assertEquals(128, sizer.get());
+        // Between a quarter and full, the size holds
+        sizer.update(40);
+        assertEquals(128, sizer.get());
+        sizer.update(0);
+        assertEquals(64, sizer.get());
+        sizer.update(0);
+        sizer.update(0);
+        sizer.update(0);
+        assertEquals(16, sizer.get());
+    }
+
+    @Test
+    public void configureClampsCurrent() {
+        FetchSizer sizer = new FetchSizer(1, 1000, 500);
+        sizer.configure(10, 100);
+        assertEquals(100, sizer.get());
+        sizer.configure(200, 100);
+        assertEquals(200, sizer.get());
+    }
+}
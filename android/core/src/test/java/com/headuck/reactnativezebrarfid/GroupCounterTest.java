@@ -0,0 +1,46 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class GroupCounterTest {
+
+    private static Map<Long, Integer> take(GroupCounter counter) {
+        final Map<Long, Integer> changes = new HashMap<>();
+        counter.takeChanges(new GroupCounter.Visitor() {
+            @Override
+            public void visit(long key, int count) {
+                changes.put(key, count);
+            }
+        });
+        return changes;
+    }
+
+    @Test
+    public void reportsChangedKeys() {
+        GroupCounter counter = new GroupCounter();
+        for (int i = 0; i < 1000; i++) {
+            counter.increment(1 + i % 300);
+        }
+        assertEquals(300, counter.size());
+        Map<Long, Integer> changes = take(counter);
+        assertEquals(300, changes.size());
+        assertEquals(4, (int) changes.get(1L));
+        assertEquals(3, (int) changes.get(300L));
+        assertFalse(counter.hasChanges());
+
+        counter.increment(5);
+        changes = take(counter);
+        assertEquals(1, changes.size());
+        assertEquals(5, (int) changes.get(5L));
+
+        counter.clear();
+        assertEquals(0, counter.size());
+        assertEquals(0, take(counter).size());
+    }
+}
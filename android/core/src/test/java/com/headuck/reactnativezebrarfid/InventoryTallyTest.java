@@ -0,0 +1,43 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTallyTest {
+
+    @Test
+    public void countsReads() {
+        InventoryTally tally = new InventoryTally();
+        for (int i = 0; i < 3000; i++) {
+            assertTrue(tally.record(String.format("E2%06X", i), i));
+        }
+        assertFalse(tally.record("E2000005", 5000));
+        assertEquals(3000, tally.size());
+        assertEquals(2, tally.getCount(5));
+        assertEquals(5, tally.getFirstSeen(5));
+        assertEquals(5000, tally.getLastSeen(5));
+        assertFalse(tally.hasMetadata(5));
+        assertTrue(tally.contains("E2000005"));
+        assertFalse(tally.contains("E2FFFFFF"));
+
+        tally.clear();
+        assertEquals(0, tally.size());
+        assertTrue(tally.record("E2000005", 6000));
+    }
+
+    @Test
+    public void aggregatesMetadata() {
+        InventoryTally tally = new InventoryTally();
+        assertTrue(tally.record("E2", 1, (short) -60, (short) 1, (short) 10, 2));
+        assertFalse(tally.record("E2", 2, (short) -50, (short) 2, (short) 20, 0));
+        assertTrue(tally.hasMetadata(0));
+        assertEquals(-50, tally.getMaxRssi(0));
+        assertEquals(-55.0, tally.getAverageRssi(0), 0);
+        assertEquals(3, tally.getSeenCount(0));
+        assertEquals(2, tally.getAntenna(0));
+        assertEquals(20, tally.getPhase(0));
+    }
+}
@@ -0,0 +1,40 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void percentilesWithinBucketError() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record(i);
+        }
+        assertEquals(1000, recorder.getCount());
+        assertEquals(1000, recorder.getMax());
+        long p50 = recorder.getPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.125);
+        long p99 = recorder.getPercentile(99);
+        assertTrue(p99 >= 990 && p99 <= 1000);
+        assertEquals(1000, recorder.getPercentile(100));
+
+        recorder.reset();
+        assertEquals(0, recorder.getCount());
+        assertEquals(0, recorder.getPercentile(50));
+    }
+
+    @Test
+    public void bucketsCoverValues() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyRecorder.index(value);
+            assertTrue(value <= LatencyRecorder.upperBound(index));
+            if (index > 0) {
+                assertTrue(value > LatencyRecorder.upperBound(index - 1));
+            }
+        }
+    }
+}
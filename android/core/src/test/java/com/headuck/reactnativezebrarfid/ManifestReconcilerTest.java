@@ -0,0 +1,33 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class ManifestReconcilerTest {
+
+    @Test
+    public void reconcilesReads() {
+        ManifestReconciler reconciler = new ManifestReconciler(Arrays.asList("E200", "E201", "E202", "E200"), 4);
+        assertEquals(3, reconciler.getExpectedCount());
+        assertEquals(ManifestReconciler.FOUND, reconciler.record("E201"));
+        assertEquals(ManifestReconciler.REPEAT, reconciler.record("E201"));
+        assertEquals(ManifestReconciler.UNEXPECTED, reconciler.record("E2FF"));
+        assertEquals(ManifestReconciler.REPEAT, reconciler.record("E2FF"));
+
+        assertEquals(1, reconciler.getFoundCount());
+        assertEquals(2, reconciler.getMissingCount());
+        assertEquals(1, reconciler.getUnexpectedCount());
+        assertEquals("E2FF", reconciler.getUnexpectedId(0));
+        assertEquals(0, reconciler.nextMissing(0));
+        assertEquals(2, reconciler.nextMissing(1));
+        assertEquals("E202", reconciler.getExpectedId(2));
+
+        reconciler.reset();
+        assertEquals(0, reconciler.getFoundCount());
+        assertEquals(0, reconciler.getUnexpectedCount());
+        assertEquals(ManifestReconciler.FOUND, reconciler.record("E201"));
+    }
+}
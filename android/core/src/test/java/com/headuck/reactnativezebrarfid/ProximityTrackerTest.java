@@ -0,0 +1,112 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProximityTrackerTest {
+
+    private static final String TARGET = "3074257BF7194E4000001A85";
+    private static final String OTHER = "3074257BF7194E4000001A86";
+
+    private static class Update {
+        final String id;
+        final double distance;
+        final int raw;
+        final long lastSeen;
+
+        Update(String id, double distance, int raw, long lastSeen) {
+            this.id = id;
+            this.distance = distance;
+            this.raw = raw;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private static class Recorder implements ProximityTracker.Visitor {
+        final List<Update> updates = new ArrayList<>();
+
+        @Override
+        public void visit(String id, double distance, int raw, long lastSeen) {
+            updates.add(new Update(id, distance, raw, lastSeen));
+        }
+    }
+
+    @Test
+    public void smoothsDistances() {
+        ProximityTracker tracker = new ProximityTracker(Arrays.asList(TARGET), 0.5);
+        int[] series = {40, 60, 80, 80, 0};
+        // First report taken as is, then halfway towards each new report
+        double[] expected = {40, 50, 65, 72.5, 36.25};
+        for (int i = 0; i < series.length; i++) {
+            tracker.update(0, series[i], 1000 + i);
+            Recorder recorder = new Recorder();
+            assertEquals(1, tracker.takeChanges(recorder));
+            Update update = recorder.updates.get(0);
+            assertEquals(TARGET, update.id);
+            assertEquals(expected[i], update.distance, 1e-9);
+            assertEquals(series[i], update.raw);
+            assertEquals(1000 + i, update.lastSeen);
+        }
+    }
+
+    @Test
+    public void handsOverChangedTargetsOnce() {
+        ProximityTracker tracker = new ProximityTracker(Arrays.asList(TARGET, OTHER), 1);
+        assertTrue(tracker.update(OTHER, 30, 10));
+        assertFalse(tracker.update("E200", 30, 10));
+        Recorder recorder = new Recorder();
+        assertEquals(1, tracker.takeChanges(recorder));
+        assertEquals(OTHER, recorder.updates.get(0).id);
+        assertEquals(30, recorder.updates.get(0).distance, 0);
+        assertEquals(0, tracker.takeChanges(new Recorder()));
+
+        // Reset starts the average over
+        tracker.update(OTHER, 90, 20);
+        tracker.reset();
+        assertEquals(0, tracker.takeChanges(new Recorder()));
+    }
+
+    @Test
+    public void capsUpdateRate() {
+        ProximityTracker tracker = new ProximityTracker(Arrays.asList(TARGET), 0.3);
+        List<Long> taken = new ArrayList<>();
+        Recorder recorder = new Recorder();
+        // Reports every 5 ms, taken every 10 ms with a 50 ms minimum interval
+        for (long time = 0; time <= 1000; time += 5) {
+            tracker.update(0, (int) (time / 10), time);
+            if (time % 10 == 0 && tracker.takeChanges(time, 50, recorder) > 0) {
+                taken.add(time);
+            }
+        }
+        assertEquals(21, taken.size());
+        for (int i = 1; i < taken.size(); i++) {
+            assertTrue(taken.get(i) - taken.get(i - 1) >= 50);
+        }
+        // Reports in between are folded into the next update, not lost
+        assertEquals(1000, recorder.updates.get(recorder.updates.size() - 1).lastSeen);
+    }
+
+    @Test
+    public void lateTimerDoesNotSendBackToBack() {
+        ProximityTracker tracker = new ProximityTracker(Arrays.asList(TARGET), 0.3);
+        tracker.update(0, 50, 0);
+        assertEquals(1, tracker.takeChanges(0, 50, new Recorder()));
+        tracker.update(0, 60, 120);
+        // Runs at 120 and catches up the missed run at 121
+        assertEquals(1, tracker.takeChanges(120, 50, new Recorder()));
+        tracker.update(0, 70, 121);
+        assertEquals(0, tracker.takeChanges(121, 50, new Recorder()));
+        // Held back, not dropped
+        assertEquals(1, tracker.takeChanges(170, 50, new Recorder()));
+        // A final take ignores the interval
+        tracker.update(0, 80, 171);
+        assertEquals(1, tracker.takeChanges(171, 0, new Recorder()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReaderConfigMirrorTest {
+
+    @Test
+    public void tracksAppliedValues() {
+        ReaderConfigMirror mirror = new ReaderConfigMirror();
+        assertFalse(mirror.isKnown(ReaderConfigMirror.TAG_FIELDS));
+        assertTrue(mirror.differs(ReaderConfigMirror.TAG_FIELDS, 0));
+
+        mirror.applied(ReaderConfigMirror.TAG_FIELDS, 1);
+        assertTrue(mirror.isKnown(ReaderConfigMirror.TAG_FIELDS));
+        assertFalse(mirror.differs(ReaderConfigMirror.TAG_FIELDS, 1));
+        assertTrue(mirror.differs(ReaderConfigMirror.TAG_FIELDS, 0));
+        assertFalse(mirror.isKnown(ReaderConfigMirror.ANTENNA_POWER));
+
+        mirror.invalidate();
+        assertFalse(mirror.isKnown(ReaderConfigMirror.TAG_FIELDS));
+        assertTrue(mirror.differs(ReaderConfigMirror.TAG_FIELDS, 1));
+    }
+
+    @Test
+    public void hashesKeys() {
+        assertEquals(ReaderConfigMirror.hash("EPC:32:3034"), ReaderConfigMirror.hash("EPC:32:3034"));
+        assertNotEquals(ReaderConfigMirror.hash("EPC:32:3034"), ReaderConfigMirror.hash("EPC:32:3035"));
+        // FNV-1a offset basis for the empty key
+        assertEquals(0xcbf29ce484222325L, ReaderConfigMirror.hash(""));
+    }
+}
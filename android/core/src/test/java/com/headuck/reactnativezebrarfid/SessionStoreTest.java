@@ -0,0 +1,93 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SessionStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String id(int i) {
+        return String.format("E2801160%016X", (long) i * 7919);
+    }
+
+    @Test
+    public void recordsAndUpdates() throws IOException {
+        SessionStore store = SessionStore.open("s", new File(folder.getRoot(), "s.rfs"), 1);
+        assertTrue(store.record("E2801160", 10, (short) -60, (short) 1));
+        assertFalse(store.record("E2801160", 20, (short) -50, (short) 2));
+        // Unreported RSSI and antenna keep the stored values
+        assertFalse(store.record("E2801160", 30, (short) 0, (short) 0));
+        assertFalse(store.record("not hex", 30, (short) 0, (short) 0));
+
+        assertEquals(1, store.size());
+        assertEquals(3, store.getReads());
+        assertEquals("E2801160", store.getTagId(0));
+        assertEquals(3, store.getCount(0));
+        assertEquals(10, store.getFirstSeen(0));
+        assertEquals(30, store.getLastSeen(0));
+        assertEquals(-50, store.getMaxRssi(0));
+        assertEquals(2, store.getAntenna(0));
+        assertEquals(30, store.getUpdated());
+        store.close();
+        assertTrue(store.isClosed());
+        assertFalse(store.record("E2801161", 40, (short) 0, (short) 0));
+    }
+
+    @Test
+    public void reopensAndRebuildsIndex() throws IOException {
+        File file = new File(folder.getRoot(), "s.rfs");
+        int tags = 5000;
+        SessionStore store = SessionStore.open("s", file, 1);
+        for (int i = 0; i < tags; i++) {
+            assertTrue(store.record(id(i), i, (short) -50, (short) 1));
+        }
+        // Odd length IDs keep their length
+        assertTrue(store.record("ABC", tags, (short) 0, (short) 0));
+        store.close();
+
+        SessionStore reopened = SessionStore.open("s", file, 2);
+        assertEquals(tags + 1, reopened.size());
+        assertEquals(tags + 1, reopened.getReads());
+        assertEquals(1, reopened.getCreated());
+        for (int i = 0; i < tags; i++) {
+            assertEquals(id(i), reopened.getTagId(i));
+        }
+        assertEquals("ABC", reopened.getTagId(tags));
+
+        // The rebuilt index finds stored tags and appends new ones after them
+        assertFalse(reopened.record(id(1234), 9000, (short) -40, (short) 3));
+        assertEquals(2, reopened.getCount(1234));
+        assertEquals(-40, reopened.getMaxRssi(1234));
+        assertFalse(reopened.record("ABC", 9000, (short) 0, (short) 0));
+        assertTrue(reopened.record("ABD", 9000, (short) 0, (short) 0));
+        assertEquals(tags + 2, reopened.size());
+        assertEquals("ABD", reopened.getTagId(tags + 1));
+        reopened.close();
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        File file = new File(folder.getRoot(), "other.rfs");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[128]);
+        out.close();
+        try {
+            SessionStore.open("other", file, 1);
+            fail("expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
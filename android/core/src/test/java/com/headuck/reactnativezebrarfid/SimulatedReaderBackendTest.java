@@ -0,0 +1,230 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SimulatedReaderBackendTest {
+
+    private FakeScheduler scheduler;
+    private Recorder recorder;
+
+    /**
+     * Drains the backend on every notification, as the scanner thread does.
+     */
+    private static class Recorder implements ReaderBackend.Listener {
+        SimulatedReaderBackend backend;
+        boolean fetching = true;
+        final TagRead[] reads = new TagRead[256];
+        final List<String> ids = new ArrayList<>();
+        final List<Long> notifyTimes = new ArrayList<>();
+        final List<String> events = new ArrayList<>();
+        FakeScheduler scheduler;
+        int minRssi = Integer.MAX_VALUE;
+        int maxRssi = Integer.MIN_VALUE;
+        Set<Integer> antennas = new HashSet<>();
+
+        Recorder() {
+            for (int i = 0; i < reads.length; i++) {
+                reads[i] = new TagRead();
+            }
+        }
+
+        @Override
+        public void onReadNotify() {
+            notifyTimes.add(scheduler.now());
+            if (!fetching) return;
+            int length;
+            do {
+                length = backend.fetch(reads, reads.length);
+                for (int i = 0; i < length; i++) {
+                    ids.add(reads[i].tagId);
+                    minRssi = Math.min(minRssi, reads[i].rssi);
+                    maxRssi = Math.max(maxRssi, reads[i].rssi);
+                    antennas.add((int) reads[i].antenna);
+                }
+            } while (length == reads.length);
+        }
+
+        @Override
+        public void onTrigger(boolean pressed) {
+            events.add((pressed ? "pressed " : "released ") + scheduler.now());
+        }
+
+        @Override
+        public void onInventory(boolean started) {
+            events.add((started ? "started " : "stopped ") + scheduler.now());
+        }
+
+        @Override
+        public void onDisconnect() {
+            events.add("disconnect " + scheduler.now());
+        }
+    }
+
+    @Before
+    public void setUp() {
+        scheduler = new FakeScheduler();
+        recorder = new Recorder();
+        recorder.scheduler = scheduler;
+    }
+
+    private SimulatedReaderBackend backend(SimulatedReaderBackend.Profile profile) {
+        SimulatedReaderBackend backend = new SimulatedReaderBackend(profile, scheduler, recorder) {
+            @Override
+            long nanoTime() {
+                return scheduler.now() * 1000000;
+            }
+        };
+        recorder.backend = backend;
+        return backend;
+    }
+
+    private static SimulatedReaderBackend.Profile profile() {
+        SimulatedReaderBackend.Profile profile = new SimulatedReaderBackend.Profile();
+        profile.population = 200;
+        profile.readRate = 5000;
+        profile.antennas = 4;
+        profile.seed = 1;
+        return profile;
+    }
+
+    @Test
+    public void generatesAtReadRate() throws Exception {
+        SimulatedReaderBackend backend = backend(profile());
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(1000);
+
+        // A notification every 10 ms tick, each with the reads owed since the last
+        assertEquals(100, recorder.notifyTimes.size());
+        for (int i = 0; i < recorder.notifyTimes.size(); i++) {
+            assertEquals(10L * (i + 1), (long) recorder.notifyTimes.get(i));
+        }
+        assertEquals(5000, recorder.ids.size());
+        assertEquals(5000, backend.getGenerated());
+        assertEquals(0, backend.getOverflowed());
+
+        Set<String> distinct = new HashSet<>(recorder.ids);
+        assertTrue(distinct.size() <= 200);
+        // 5000 reads over 200 tags see nearly all of them
+        assertTrue(distinct.size() > 190);
+        for (String id : distinct) {
+            assertEquals(24, id.length());
+            assertTrue(id.startsWith("30"));
+        }
+        assertTrue(recorder.minRssi >= -100);
+        assertTrue(recorder.maxRssi <= -20);
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4)), recorder.antennas);
+
+        backend.stopInventory();
+        scheduler.advance(1000);
+        assertEquals(5000, recorder.ids.size());
+        assertEquals("[started 0, stopped 1000]", recorder.events.toString());
+    }
+
+    @Test
+    public void carriesFractionalReadsOver() throws Exception {
+        SimulatedReaderBackend.Profile profile = profile();
+        // 1.5 reads per tick
+        profile.readRate = 150;
+        SimulatedReaderBackend backend = backend(profile);
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(1000);
+        assertEquals(150, recorder.ids.size());
+    }
+
+    @Test
+    public void repeatsTags() throws Exception {
+        SimulatedReaderBackend.Profile profile = profile();
+        profile.duplicateRatio = 1;
+        SimulatedReaderBackend backend = backend(profile);
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(100);
+        assertEquals(500, recorder.ids.size());
+        assertEquals(1, new HashSet<>(recorder.ids).size());
+    }
+
+    @Test
+    public void sameSeedSameReads() throws Exception {
+        SimulatedReaderBackend backend = backend(profile());
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(100);
+        List<String> first = new ArrayList<>(recorder.ids);
+
+        setUp();
+        backend = backend(profile());
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(100);
+        assertEquals(first, recorder.ids);
+    }
+
+    @Test
+    public void overflowsFullBuffer() throws Exception {
+        SimulatedReaderBackend.Profile profile = profile();
+        profile.readRate = 10000000;
+        SimulatedReaderBackend backend = backend(profile);
+        // 100000 reads in one tick, nobody fetches
+        recorder.fetching = false;
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(10);
+        assertEquals(100000, backend.getGenerated());
+        assertEquals(100000 - 65536, backend.getOverflowed());
+
+        recorder.fetching = true;
+        recorder.onReadNotify();
+        assertEquals(65536, recorder.ids.size());
+    }
+
+    @Test
+    public void pressesTrigger() {
+        SimulatedReaderBackend.Profile profile = profile();
+        profile.triggerInterval = 5000;
+        profile.triggerHold = 2000;
+        SimulatedReaderBackend backend = backend(profile);
+        backend.connect();
+        scheduler.advance(11000);
+        assertEquals("[pressed 5000, released 7000, pressed 10000]", recorder.events.toString());
+
+        backend.disconnect();
+        scheduler.advance(10000);
+        assertEquals(3, recorder.events.size());
+    }
+
+    @Test
+    public void dropsConnection() throws Exception {
+        SimulatedReaderBackend.Profile profile = profile();
+        // Certain to disconnect on the first tick
+        profile.disconnectRate = 6000;
+        SimulatedReaderBackend backend = backend(profile);
+        backend.connect();
+        backend.startInventory();
+        scheduler.advance(100);
+        assertFalse(backend.isConnected());
+        assertEquals("[started 0, disconnect 10]", recorder.events.toString());
+        assertTrue(recorder.ids.isEmpty());
+        assertEquals(0, backend.fetch(recorder.reads, recorder.reads.length));
+
+        try {
+            backend.startInventory();
+            fail("inventory should need a connection");
+        } catch (Exception expected) {
+            // Not connected
+        }
+    }
+}
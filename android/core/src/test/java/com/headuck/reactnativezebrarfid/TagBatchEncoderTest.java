@@ -0,0 +1,183 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TagBatchEncoderTest {
+
+    private static final String HEX_CHARS = "0123456789ABCDEF";
+    private static final String READER = "RFD850019077523021520";
+
+    /**
+     * Decoded batch, as produced by decodeTagBatch in lib/RFIDScanner.js.
+     */
+    private static class Batch {
+        String reader;
+        List<Tag> tags = new ArrayList<>();
+    }
+
+    /**
+     * Decoded tag, as produced by decodeTagBatch in lib/RFIDScanner.js.
+     */
+    private static class Tag {
+        String id;
+        int rssi;
+        int antenna;
+        long time;
+    }
+
+    /**
+     * Port of decodeTagBatch in lib/RFIDScanner.js, reading the documented layout.
+     */
+    private static Batch decode(byte[] data, int length) {
+        int[] bytes = new int[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data[i] & 0xFF;
+        }
+        int fields = bytes[1];
+        int count = (bytes[2] << 8) | bytes[3];
+        Batch batch = new Batch();
+        int readerLength = bytes[4];
+        batch.reader = new String(data, 5, readerLength, Charset.forName("UTF-8"));
+        int pos = 5 + readerLength;
+        long baseTime = 0;
+        if ((fields & TagBatchEncoder.FIELD_TIME) != 0) {
+            for (int i = 0; i < 8; i++) {
+                baseTime = baseTime * 256 + bytes[pos++];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            Tag tag = new Tag();
+            int idLength = bytes[pos++];
+            StringBuilder id = new StringBuilder();
+            for (int j = 0; j < idLength; j += 2) {
+                int b = bytes[pos++];
+                id.append(HEX_CHARS.charAt(b >> 4));
+                if (j + 1 < idLength) id.append(HEX_CHARS.charAt(b & 0x0F));
+            }
+            tag.id = id.toString();
+            if ((fields & TagBatchEncoder.FIELD_RSSI) != 0) {
+                tag.rssi = (byte) bytes[pos++];
+            }
+            if ((fields & TagBatchEncoder.FIELD_ANTENNA) != 0) {
+                tag.antenna = bytes[pos++];
+            }
+            if ((fields & TagBatchEncoder.FIELD_TIME) != 0) {
+                tag.time = baseTime + (((long) bytes[pos] << 24) | (bytes[pos + 1] << 16) | (bytes[pos + 2] << 8) | bytes[pos + 3]);
+                pos += 4;
+            }
+            batch.tags.add(tag);
+        }
+        assertEquals("trailing bytes", length, pos);
+        return batch;
+    }
+
+    @Test
+    public void idsOnly() {
+        TagBatchEncoder encoder = new TagBatchEncoder();
+        encoder.begin(READER, 0, 0);
+        assertTrue(encoder.add("3074257BF7194E4000001A85", 0, 0, 0));
+        assertTrue(encoder.add("e2801160", 0, 0, 0));
+        assertTrue(encoder.add("ABC", 0, 0, 0));
+        int length = encoder.finish();
+
+        byte[] buffer = encoder.getBuffer();
+        assertEquals(TagBatchEncoder.VERSION, buffer[0]);
+        assertEquals(0, buffer[1]);
+        // header with the reader name, then 1 + 12, 1 + 4 and 1 + 2 bytes
+        assertEquals(5 + READER.length() + 13 + 5 + 3, length);
+
+        Batch batch = decode(buffer, length);
+        assertEquals(READER, batch.reader);
+        List<Tag> tags = batch.tags;
+        assertEquals(3, tags.size());
+        assertEquals("3074257BF7194E4000001A85", tags.get(0).id);
+        assertEquals("E2801160", tags.get(1).id);
+        assertEquals("ABC", tags.get(2).id);
+    }
+
+    @Test
+    public void allFields() {
+        int fields = TagBatchEncoder.FIELD_RSSI | TagBatchEncoder.FIELD_ANTENNA | TagBatchEncoder.FIELD_TIME;
+        long baseTime = 1700000000000L;
+        TagBatchEncoder encoder = new TagBatchEncoder();
+        encoder.begin(READER, fields, baseTime);
+        assertTrue(encoder.add("3074257BF7194E4000001A85", -61, 2, baseTime + 15));
+        // RSSI saturates to a signed byte, times before the base clamp to it
+        assertTrue(encoder.add("E200", -300, 255, baseTime - 5));
+        assertTrue(encoder.add("E201", 0, 1, baseTime + 0xF0000000L));
+        int length = encoder.finish();
+
+        List<Tag> tags = decode(encoder.getBuffer(), length).tags;
+        assertEquals(3, tags.size());
+        assertEquals(-61, tags.get(0).rssi);
+        assertEquals(2, tags.get(0).antenna);
+        assertEquals(baseTime + 15, tags.get(0).time);
+        assertEquals(-128, tags.get(1).rssi);
+        assertEquals(255, tags.get(1).antenna);
+        assertEquals(baseTime, tags.get(1).time);
+        assertEquals(baseTime + 0xF0000000L, tags.get(2).time);
+    }
+
+    @Test
+    public void skipsInvalidIds() {
+        TagBatchEncoder encoder = new TagBatchEncoder();
+        encoder.begin(READER, TagBatchEncoder.FIELD_RSSI, 0);
+        assertFalse(encoder.add("", -50, 0, 0));
+        assertFalse(encoder.add("E2XX", -50, 0, 0));
+        char[] tooLong = new char[256];
+        Arrays.fill(tooLong, 'A');
+        assertFalse(encoder.add(new String(tooLong), -50, 0, 0));
+        assertTrue(encoder.add("E2", -50, 0, 0));
+        int length = encoder.finish();
+
+        List<Tag> tags = decode(encoder.getBuffer(), length).tags;
+        assertEquals(1, tags.size());
+        assertEquals("E2", tags.get(0).id);
+        assertEquals(-50, tags.get(0).rssi);
+    }
+
+    @Test
+    public void reusesBufferAcrossBatches() {
+        TagBatchEncoder encoder = new TagBatchEncoder();
+        encoder.begin(READER, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(encoder.add(String.format("%024X", i), 0, 0, 0));
+        }
+        int length = encoder.finish();
+        List<Tag> tags = decode(encoder.getBuffer(), length).tags;
+        assertEquals(2000, tags.size());
+        assertEquals(String.format("%024X", 1999), tags.get(1999).id);
+
+        encoder.begin("RFD8500", 0, 0);
+        assertTrue(encoder.add("E2", 0, 0, 0));
+        length = encoder.finish();
+        Batch batch = decode(encoder.getBuffer(), length);
+        assertEquals("RFD8500", batch.reader);
+        assertEquals(1, batch.tags.size());
+        assertEquals("E2", batch.tags.get(0).id);
+    }
+
+    @Test
+    public void truncatesLongReaderNames() {
+        // 200 two-byte characters, cut to 127 of them rather than within the 128th
+        char[] name = new char[200];
+        Arrays.fill(name, '\u00E9');
+        TagBatchEncoder encoder = new TagBatchEncoder();
+        encoder.begin(new String(name), 0, 0);
+        assertTrue(encoder.add("E2", 0, 0, 0));
+        int length = encoder.finish();
+
+        Batch batch = decode(encoder.getBuffer(), length);
+        assertEquals(new String(name, 0, 127), batch.reader);
+        assertEquals("E2", batch.tags.get(0).id);
+    }
+}
@@ -0,0 +1,180 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TagBatcherTest {
+
+    private static final String READER = "RFD850019077523021520";
+
+    private static class Batch {
+        final String reader;
+        final List<String> tags;
+        final long since;
+
+        Batch(String reader, List<String> tags, long since) {
+            this.reader = reader;
+            this.tags = tags;
+            this.since = since;
+        }
+    }
+
+    private FakeScheduler scheduler;
+    private List<Batch> batches;
+    private TagBatcher batcher;
+
+    @Before
+    public void setUp() {
+        scheduler = new FakeScheduler();
+        batches = new ArrayList<>();
+        batcher = new TagBatcher(scheduler, new TagBatcher.Listener() {
+            @Override
+            public void onBatch(String reader, ArrayList<String> tags, long since) {
+                batches.add(new Batch(reader, tags, since));
+            }
+        });
+    }
+
+    @Test
+    public void disabledByDefault() {
+        assertFalse(batcher.isEnabled());
+        batcher.configure(0, 0);
+        assertFalse(batcher.isEnabled());
+        batcher.configure(50, 0);
+        assertTrue(batcher.isEnabled());
+        batcher.configure(0, 10);
+        assertTrue(batcher.isEnabled());
+    }
+
+    @Test
+    public void flushesAtMaxTags() {
+        batcher.configure(0, 3);
+        batcher.add(READER, "E201", 100);
+        batcher.add(READER, "E202", 100);
+        assertTrue(batches.isEmpty());
+        batcher.add(READER, "E203", 200);
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList("E201", "E202", "E203"), batches.get(0).tags);
+        // Size based only, nothing is scheduled
+        assertEquals(0, scheduler.pending());
+
+        batcher.add(READER, "E204", 300);
+        batcher.flush();
+        assertEquals(2, batches.size());
+        assertEquals(Arrays.asList("E204"), batches.get(1).tags);
+    }
+
+    @Test
+    public void schedulesOneFlushPerWindow() {
+        batcher.configure(50, 0);
+        batcher.add(READER, "E201", 100);
+        batcher.add(READER, "E202", 100);
+        batcher.add(READER, "E203", 100);
+        assertEquals(1, scheduler.pending());
+
+        scheduler.advance(49);
+        assertTrue(batches.isEmpty());
+        scheduler.advance(1);
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList("E201", "E202", "E203"), batches.get(0).tags);
+        assertEquals(0, scheduler.pending());
+
+        // The next tag opens a new window
+        batcher.add(READER, "E204", 200);
+        assertEquals(1, scheduler.pending());
+        scheduler.advance(50);
+        assertEquals(2, batches.size());
+        assertEquals(Arrays.asList("E204"), batches.get(1).tags);
+    }
+
+    @Test
+    public void maxTagsCancelsWindow() {
+        batcher.configure(50, 2);
+        batcher.add(READER, "E201", 100);
+        assertEquals(1, scheduler.pending());
+        batcher.add(READER, "E202", 100);
+        assertEquals(1, batches.size());
+
+        batcher.add(READER, "E203", 100);
+        scheduler.advance(50);
+        assertEquals(2, batches.size());
+        assertEquals(Arrays.asList("E203"), batches.get(1).tags);
+    }
+
+    @Test
+    public void tracksOldestNotification() {
+        batcher.configure(50, 0);
+        batcher.add(READER, "E201", 300);
+        // Drained out of order, the older notification wins
+        batcher.add(READER, "E202", 200);
+        batcher.add(READER, "E203", 400);
+        scheduler.advance(50);
+        assertEquals(200, batches.get(0).since);
+
+        // A new batch starts from its own first tag
+        batcher.add(READER, "E204", 500);
+        scheduler.advance(50);
+        assertEquals(500, batches.get(1).since);
+    }
+
+    @Test
+    public void keepsReadersApart() {
+        batcher.configure(50, 3);
+        batcher.add(READER, "E201", 100);
+        batcher.add("RFD8500", "E301", 150);
+        batcher.add(READER, "E202", 200);
+        assertEquals(1, scheduler.pending());
+
+        scheduler.advance(50);
+        assertEquals(2, batches.size());
+        assertEquals(READER, batches.get(0).reader);
+        assertEquals(Arrays.asList("E201", "E202"), batches.get(0).tags);
+        assertEquals(100, batches.get(0).since);
+        assertEquals("RFD8500", batches.get(1).reader);
+        assertEquals(Arrays.asList("E301"), batches.get(1).tags);
+        assertEquals(150, batches.get(1).since);
+
+        // The maximum applies per reader
+        batcher.add(READER, "E203", 300);
+        batcher.add(READER, "E204", 300);
+        batcher.add("RFD8500", "E302", 300);
+        batcher.add(READER, "E205", 300);
+        assertEquals(3, batches.size());
+        assertEquals(READER, batches.get(2).reader);
+    }
+
+    @Test
+    public void emitsNothingWhenEmpty() {
+        batcher.configure(50, 10);
+        batcher.flush();
+        scheduler.advance(100);
+        assertTrue(batches.isEmpty());
+
+        batcher.add(READER, "E201", 100);
+        batcher.flush();
+        assertEquals(1, batches.size());
+        // The cancelled window does not send an empty batch
+        scheduler.advance(100);
+        batcher.flush();
+        assertEquals(1, batches.size());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    public void configureFlushesPending() {
+        batcher.configure(50, 0);
+        batcher.add(READER, "E201", 100);
+        batcher.configure(0, 0);
+        assertEquals(1, batches.size());
+        assertFalse(batcher.isEnabled());
+        assertEquals(0, scheduler.pending());
+    }
+}
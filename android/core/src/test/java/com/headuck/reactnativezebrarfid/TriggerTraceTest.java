@@ -0,0 +1,103 @@
+package com.headuck.reactnativezebrarfid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TriggerTraceTest {
+
+    private static final long MS = 1000000;
+
+    @Test
+    public void measuresEveryStage() {
+        TriggerTrace trace = new TriggerTrace(10);
+        long[] intervals = new long[TriggerTrace.INTERVALS];
+        trace.begin(1000 * MS);
+        assertTrue(trace.isOpen());
+        trace.mark(TriggerTrace.ISSUED, 1002 * MS);
+        trace.mark(TriggerTrace.STARTED, 1010 * MS);
+        trace.mark(TriggerTrace.FIRST_RESULT, 1025 * MS);
+        // Only the first mark of a stage counts
+        trace.mark(TriggerTrace.FIRST_RESULT, 1030 * MS);
+        assertTrue(trace.end(intervals));
+        assertFalse(trace.isOpen());
+
+        assertEquals(2000, intervals[TriggerTrace.QUEUE_AND_CONFIG]);
+        assertEquals(8000, intervals[TriggerTrace.RADIO_START]);
+        assertEquals(15000, intervals[TriggerTrace.FIRST_READ]);
+        assertEquals(25000, intervals[TriggerTrace.TOTAL]);
+        for (int i = 0; i < TriggerTrace.INTERVALS; i++) {
+            assertEquals(1, trace.getWindow(i).size());
+        }
+
+        // Nothing open to end
+        assertFalse(trace.end(intervals));
+    }
+
+    @Test
+    public void stagesNotReachedAreLeftOut() {
+        TriggerTrace trace = new TriggerTrace(10);
+        long[] intervals = new long[TriggerTrace.INTERVALS];
+        // Released before the radio started or anything was read
+        trace.begin(1000 * MS);
+        trace.mark(TriggerTrace.ISSUED, 1003 * MS);
+        assertTrue(trace.end(intervals));
+
+        assertEquals(3000, intervals[TriggerTrace.QUEUE_AND_CONFIG]);
+        assertEquals(-1, intervals[TriggerTrace.RADIO_START]);
+        assertEquals(-1, intervals[TriggerTrace.FIRST_READ]);
+        assertEquals(-1, intervals[TriggerTrace.TOTAL]);
+        assertEquals(1, trace.getWindow(TriggerTrace.QUEUE_AND_CONFIG).size());
+        assertEquals(0, trace.getWindow(TriggerTrace.RADIO_START).size());
+        assertEquals(0, trace.getWindow(TriggerTrace.FIRST_READ).size());
+        assertEquals(0, trace.getWindow(TriggerTrace.TOTAL).size());
+
+        // Without a start event the first read is timed from the command issue
+        trace.begin(2000 * MS);
+        trace.mark(TriggerTrace.ISSUED, 2001 * MS);
+        trace.mark(TriggerTrace.FIRST_RESULT, 2011 * MS);
+        assertTrue(trace.end(intervals));
+        assertEquals(-1, intervals[TriggerTrace.RADIO_START]);
+        assertEquals(10000, intervals[TriggerTrace.FIRST_READ]);
+        assertEquals(11000, intervals[TriggerTrace.TOTAL]);
+        assertEquals(0, trace.getWindow(TriggerTrace.RADIO_START).size());
+        assertEquals(1, trace.getWindow(TriggerTrace.FIRST_READ).size());
+    }
+
+    @Test
+    public void marksOutsideTraceIgnored() {
+        TriggerTrace trace = new TriggerTrace(10);
+        long[] intervals = new long[TriggerTrace.INTERVALS];
+        trace.mark(TriggerTrace.ISSUED, 500 * MS);
+        trace.begin(1000 * MS);
+        assertTrue(trace.end(intervals));
+        for (int i = 0; i < TriggerTrace.INTERVALS; i++) {
+            assertEquals(-1, intervals[i]);
+            assertEquals(0, trace.getWindow(i).size());
+        }
+    }
+
+    @Test
+    public void nearestRankAfterWrap() {
+        TriggerTrace.Window window = new TriggerTrace.Window(5);
+        assertEquals(0, window.getPercentile(50));
+        // 1, 2 and 3 are overwritten, the window holds 4 to 8 out of order
+        long[] samples = {1, 2, 3, 8, 6, 4, 7, 5};
+        for (long sample : samples) {
+            window.add(sample);
+        }
+        assertEquals(5, window.size());
+        assertEquals(4, window.getPercentile(0));
+        assertEquals(4, window.getPercentile(20));
+        assertEquals(5, window.getPercentile(21));
+        assertEquals(6, window.getPercentile(50));
+        assertEquals(8, window.getPercentile(90));
+        assertEquals(8, window.getPercentile(100));
+
+        window.clear();
+        assertEquals(0, window.size());
+        assertEquals(0, window.getPercentile(50));
+    }
+}
@@ -0,0 +1,110 @@
+package com.headuck.reactnativezebrarfid;
+
+import com.zebra.rfid.api3.*;
+
+/**
+ * Access parameters and filter for read, write and permaLock, built once by setMode and
+ * reused on every trigger press. Plans are not modified after they are built; a new plan is
+ * compiled only when the mode configuration changes, which is detected by comparing keys.
+ */
+final class AccessPlan {
+
+    final String key;
+
+    final TagAccess.ReadAccessParams readAccessParams;
+    final TagAccess.WriteAccessParams writeAccessParams;
+    final TagAccess.LockAccessParams lockAccessParams;
+    // Null if the operation applies to any tag
+    final AccessFilter accessFilter;
+
+    private AccessPlan(String key, TagAccess.ReadAccessParams readAccessParams,
+                       TagAccess.WriteAccessParams writeAccessParams,
+                       TagAccess.LockAccessParams lockAccessParams, AccessFilter accessFilter) {
+        this.key = key;
+        this.readAccessParams = readAccessParams;
+        this.writeAccessParams = writeAccessParams;
+        this.lockAccessParams = lockAccessParams;
+        this.accessFilter = accessFilter;
+    }
+
+    static String key(String mode, MEMORY_BANK memoryBank, MEMORY_BANK filterMemoryBank, String filterTagId,
+                      String tagData, int readLength, LOCK_DATA_FIELD lockMemory) {
+        return mode + "|" + memoryBank + "|" + filterMemoryBank + "|" + filterTagId + "|" + tagData
+                + "|" + readLength + "|" + lockMemory;
+    }
+
+    static AccessPlan forRead(String key, MEMORY_BANK memoryBank, int readLength,
+                              MEMORY_BANK filterMemoryBank, String filterTagId) {
+        TagAccess tagAccess = new TagAccess();
+        TagAccess.ReadAccessParams readAccessParams = tagAccess.new ReadAccessParams();
+
+        readAccessParams.setMemoryBank(memoryBank != null ? memoryBank : MEMORY_BANK.MEMORY_BANK_USER);
+        readAccessParams.setOffset(0);
+        readAccessParams.setAccessPassword(0);
+        readAccessParams.setCount(readLength);
+
+        AccessFilter accessFilter = null;
+        if (filterTagId != null && filterMemoryBank != null) {
+            accessFilter = buildFilter(filterMemoryBank, filterTagId);
+        }
+        return new AccessPlan(key, readAccessParams, null, null, accessFilter);
+    }
+
+    static AccessPlan forWrite(String key, MEMORY_BANK memoryBank, String tagData,
+                               MEMORY_BANK filterMemoryBank, String filterTagId) {
+        TagAccess tagAccess = new TagAccess();
+        TagAccess.WriteAccessParams writeAccessParams = tagAccess.new WriteAccessParams();
+
+        if (memoryBank != null) {
+            writeAccessParams.setMemoryBank(memoryBank);
+            if (memoryBank == MEMORY_BANK.MEMORY_BANK_USER) {
+                writeAccessParams.setOffset(0);
+            } else {
+                writeAccessParams.setOffset(2);
+            }
+        } else {
+            writeAccessParams.setMemoryBank(MEMORY_BANK.MEMORY_BANK_USER);
+            writeAccessParams.setOffset(0);
+        }
+
+        writeAccessParams.setAccessPassword(0);
+        writeAccessParams.setWriteRetries(3);
+        if (tagData != null) {
+            writeAccessParams.setWriteData(tagData);
+            writeAccessParams.setWriteDataLength(tagData.length() / 4);
+        }
+
+        AccessFilter accessFilter = null;
+        if (filterTagId != null) {
+            accessFilter = buildFilter(filterMemoryBank, filterTagId);
+        }
+        return new AccessPlan(key, null, writeAccessParams, null, accessFilter);
+    }
+
+    static AccessPlan forLock(String key, LOCK_DATA_FIELD lockMemory,
+                              MEMORY_BANK filterMemoryBank, String filterTagId) {
+        TagAccess tagAccess = new TagAccess();
+        TagAccess.LockAccessParams lockAccessParams = tagAccess.new LockAccessParams();
+
+        lockAccessParams.setLockPrivilege(lockMemory, LOCK_PRIVILEGE.LOCK_PRIVILEGE_PERMA_LOCK);
+        lockAccessParams.setAccessPassword(0);
+
+        AccessFilter accessFilter = null;
+        if (filterTagId != null) {
+            accessFilter = buildFilter(filterMemoryBank, filterTagId);
+        }
+        return new AccessPlan(key, null, null, lockAccessParams, accessFilter);
+    }
+
+    private static AccessFilter buildFilter(MEMORY_BANK filterMemoryBank, String filterTagId) {
+        AccessFilter accessFilter = new AccessFilter();
+        accessFilter.TagPatternA.setMemoryBank(filterMemoryBank != null ? filterMemoryBank : MEMORY_BANK.MEMORY_BANK_EPC);
+        accessFilter.TagPatternA.setTagPattern(filterTagId);
+        accessFilter.TagPatternA.setTagPatternBitCount(filterTagId.length() * 4);
+        accessFilter.TagPatternA.setBitOffset(0);
+        accessFilter.TagPatternA.setTagMask(filterTagId);
+        accessFilter.TagPatternA.setTagMaskBitCount(filterTagId.length() * 4);
+        accessFilter.setAccessFilterMatchPattern(FILTER_MATCH_PATTERN.A);
+        return accessFilter;
+    }
+}
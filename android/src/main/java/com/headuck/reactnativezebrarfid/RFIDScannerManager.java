@@ -4,9 +4,12 @@ import android.util.Log;
 
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
@@ -16,29 +19,67 @@ public class RFIDScannerManager extends ReactContextBaseJavaModule implements Li
 
     public final ReactApplicationContext context;
 
+    private final static int DISPATCH_CAPACITY = 1024;
+
     private RFIDScannerThread scannerthread = null;
 
+    // Emits events to JS on its own thread so the reader threads never wait on the bridge
+    private final EventDispatcher dispatcher;
+
+    /**
+     * @return true for events carrying tag results, the only events dropped when the queue is full
+     */
+    private static boolean isTagEvent(String name) {
+        return "TagEvent".equals(name) || "TagsEvent".equals(name)
+                || "TagsBinaryEvent".equals(name) || "TagRecordsEvent".equals(name);
+    }
+
     public RFIDScannerManager(ReactApplicationContext reactContext) {
         super(reactContext);
 
         this.context = reactContext;
         this.context.addLifecycleEventListener(this);
 
+        this.dispatcher = new EventDispatcher(DISPATCH_CAPACITY, new EventDispatcher.Emitter() {
+
+            @Override
+            public void emit(String name, Object data) {
+                RFIDScannerManager.this.context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(name, data);
+            }
+
+            @Override
+            public void onDropped(long dropped) {
+                WritableMap event = Arguments.createMap();
+                event.putString("RFIDStatusEvent", "dropped " + dropped);
+                emit("RFIDStatusEvent", event);
+                Log.w("RFID", "Dispatcher dropped " + dropped + " events");
+            }
+
+        });
+        dispatcher.start();
+
         this.scannerthread = new RFIDScannerThread(this.context) {
 
             @Override
             public void dispatchEvent(String name, WritableMap data) {
-                RFIDScannerManager.this.context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(name, data);
+                dispatcher.post(name, data, isTagEvent(name));
             }
 
             @Override
             public void dispatchEvent(String name, String data) {
-                RFIDScannerManager.this.context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(name, data);
+                dispatcher.post(name, data, isTagEvent(name));
             }
 
             @Override
             public void dispatchEvent(String name, WritableArray data) {
-                RFIDScannerManager.this.context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(name, data);
+                dispatcher.post(name, data, isTagEvent(name));
+            }
+
+            @Override
+            protected void putDispatchStats(WritableMap stats) {
+                stats.putDouble("droppedEvents", dispatcher.getDroppedCount());
+                stats.putInt("queuedEvents", dispatcher.getQueuedCount());
+                stats.putMap("dispatchLatency", latencyStats(dispatcher.getLatency()));
             }
 
         };
@@ -80,6 +121,7 @@ public class RFIDScannerManager extends ReactContextBaseJavaModule implements Li
         if (this.scannerthread != null) {
             this.scannerthread.onCatalystInstanceDestroy();
         }
+        dispatcher.stop();
     }
 
     @ReactMethod
@@ -89,6 +131,13 @@ public class RFIDScannerManager extends ReactContextBaseJavaModule implements Li
         }
     }
 
+    @ReactMethod
+    public void initSimulated(ReadableMap config) {
+        if (this.scannerthread != null) {
+            this.scannerthread.initSimulated(config);
+        }
+    }
+
     @ReactMethod
     public void reconnect() {
         if (this.scannerthread != null) {
@@ -97,6 +146,59 @@ public class RFIDScannerManager extends ReactContextBaseJavaModule implements Li
     }
 
 
+    @ReactMethod
+    public void setKeepAlive(int idleTimeout) {
+        if (this.scannerthread != null) {
+            this.scannerthread.setKeepAlive(idleTimeout);
+        }
+    }
+
+    @ReactMethod
+    public void refreshReaders() {
+        if (this.scannerthread != null) {
+            this.scannerthread.refreshReaders();
+        }
+    }
+
+    @ReactMethod
+    public void cancelConnect() {
+        if (this.scannerthread != null) {
+            this.scannerthread.cancelConnect();
+        }
+    }
+
+    @ReactMethod
+    public void getReaders(Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.getReaders(promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void connectReader(String name, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.connectReader(name, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void disconnectReader(String name) {
+        if (this.scannerthread != null) {
+            this.scannerthread.disconnectReader(name);
+        }
+    }
+
+    @ReactMethod
+    public void setReaderMode(String name, String mode, ReadableMap config) {
+        if (this.scannerthread != null) {
+            this.scannerthread.setReaderMode(name, mode, config);
+        }
+    }
+
     @ReactMethod
     public void setMode(String mode, ReadableMap config) {
         if (this.scannerthread != null) {
@@ -125,6 +227,149 @@ public class RFIDScannerManager extends ReactContextBaseJavaModule implements Li
         }
     }
 
+    @ReactMethod
+    public void setDispatchPolicy(String policy) {
+        switch (policy) {
+            case "block":
+                dispatcher.setOverflowPolicy(EventDispatcher.OverflowPolicy.BLOCK);
+                break;
+            case "drop_newest":
+                dispatcher.setOverflowPolicy(EventDispatcher.OverflowPolicy.DROP_NEWEST);
+                break;
+            case "drop_oldest":
+            default:
+                dispatcher.setOverflowPolicy(EventDispatcher.OverflowPolicy.DROP_OLDEST);
+                break;
+        }
+        Log.i("RFID", "Dispatch policy " + dispatcher.getOverflowPolicy());
+    }
+
+    @ReactMethod
+    public void getInventorySummary(Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.getInventorySummary(promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void clearInventory() {
+        if (this.scannerthread != null) {
+            this.scannerthread.clearInventory();
+        }
+    }
+
+    @ReactMethod
+    public void decodeEpcs(ReadableArray ids, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.decodeEpcs(ids, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void getAggregate(Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.getAggregate(promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void loadManifest(ReadableArray ids, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.loadManifest(ids, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void clearManifest() {
+        if (this.scannerthread != null) {
+            this.scannerthread.clearManifest();
+        }
+    }
+
+    @ReactMethod
+    public void getMissing(ReadableMap query, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.getMissing(query, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void openSession(String name, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.openSession(name, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void closeSession() {
+        if (this.scannerthread != null) {
+            this.scannerthread.closeSession();
+        }
+    }
+
+    @ReactMethod
+    public void querySession(ReadableMap query, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.querySession(query, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void listSessions(Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.listSessions(promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void deleteSession(String name, Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.deleteSession(name, promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void getStats(Promise promise) {
+        if (this.scannerthread != null) {
+            this.scannerthread.getStats(promise);
+        } else {
+            promise.reject("RFID", "Scanner thread not available");
+        }
+    }
+
+    @ReactMethod
+    public void resetStats() {
+        if (this.scannerthread != null) {
+            this.scannerthread.resetStats();
+        }
+        dispatcher.getLatency().reset();
+    }
+
+    @ReactMethod
+    public void setStatsInterval(int interval) {
+        if (this.scannerthread != null) {
+            this.scannerthread.setStatsInterval(interval);
+        }
+    }
+
     @ReactMethod
     public void shutdown() {
         if (this.scannerthread != null) {
@@ -1,20 +1,33 @@
 package com.headuck.reactnativezebrarfid;
 
 import android.content.Context;
+import android.util.Base64;
+import android.os.SystemClock;
 import android.util.Log;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.lang.NullPointerException;
 
 import com.zebra.rfid.api3.*;
 
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 
-import org.apache.commons.lang3.StringUtils;
 
 public abstract class RFIDScannerThread extends Thread implements RfidEventsListener {
 
@@ -24,6 +37,8 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
     private final static String READ = "read";
     private final static String WRITE = "write";
     private final static String PERMA_LOCK = "perma_lock";
+    private final static String WRITE_BATCH = "write_batch";
+    private final static String LOCATE = "locate";
 
     // Config keys
     private final static String MEMORY = "memory_bank";
@@ -33,55 +48,791 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
     private final static String READ_LENGTH = "read_length";
     private final static String LOCK_MEMORY = "lock_memory";
     private final static String ANTENNA_POWER = "antenna_power";
+    private final static String UNIQUE = "unique";
+    private final static String FLUSH_INTERVAL = "flush_interval";
+    private final static String FLUSH_MAX_TAGS = "flush_max_tags";
 
     private final static String LOCK_PASSWORD = "lock_password";
     private final static String LOCK_ACCESS_PASSWORD = "lock_password";
     private final static String LOCK_EPC_MEMORY = "lock_epc_memory";
     private final static String LOCK_USER_MEMORY = "lock_user_memory";
 
+    private final static String FETCH_MIN = "fetch_min";
+    private final static String FETCH_MAX = "fetch_max";
+    private final static String OUTPUT_FORMAT = "output_format";
+    private final static String BINARY_FIELDS = "binary_fields";
+    private final static String TAG_METADATA = "tag_metadata";
+    private final static String JOBS = "jobs";
+    private final static String PRE_FILTERS = "prefilters";
+    private final static String PATTERN = "pattern";
+    private final static String OFFSET = "offset";
+    private final static String SINGULATION = "singulation";
+    private final static String TAG_POPULATION = "tag_population";
+    private final static String AGGREGATE = "aggregate";
+    private final static String TARGETS = "targets";
+    private final static String LOCATE_RATE = "locate_rate";
+    private final static String SMOOTHING = "smoothing";
+    private final static String READ_BANKS = "read_banks";
+    private final static String TID_LENGTH = "tid_length";
+    private final static String USER_OFFSET = "user_offset";
+    private final static String USER_LENGTH = "user_length";
+
+    // Aggregate groupings
+    private final static String AGGREGATE_GTIN = "gtin";
+    private final static String AGGREGATE_COMPANY_PREFIX = "company_prefix";
+
+    // Output formats
+    private final static String FORMAT_BINARY = "binary";
+
+    // Binary fields
+    private final static String FIELD_RSSI = "rssi";
+    private final static String FIELD_ANTENNA = "antenna";
+    private final static String FIELD_TIME = "time";
+
     // default values
     private final static int ANTENNA_POWER_DEFAULT = 270;
+    private final static int FETCH_MIN_DEFAULT = 25;
+    private final static int FETCH_MAX_DEFAULT = 1000;
+    private final static int FETCH_INITIAL = 100;
+    private final static int MAX_DRAIN_ITERATIONS = 50;
+    private final static int ACCESS_TIMEOUT = 1000;
+    private final static long DISCOVERY_TTL = 30000;
+    private final static int CONNECT_MAX_ATTEMPTS = 6;
+    private final static long CONNECT_BASE_DELAY = 500;
+    private final static long CONNECT_MAX_DELAY = 10000;
+    private final static int TRIGGER_TRACE_WINDOW = 100;
+    private final static int LOCATE_RATE_DEFAULT = 20;
+    private final static int LOCATE_RATE_MAX = 50;
+    private final static double SMOOTHING_DEFAULT = 0.3;
+    private final static int USER_LENGTH_DEFAULT = 8;
+    private final static String SESSION_DIR = "rfid_sessions";
+    private final static String SESSION_SUFFIX = ".rfs";
+    private final static int SESSION_PAGE_DEFAULT = 500;
+    private final static int SESSION_PAGE_MAX = 5000;
 
     private ReactApplicationContext context;
 
-    private Readers readers = null;
-    private ArrayList<ReaderDevice> deviceList = null;
-    private ReaderDevice rfidReaderDevice = null;
-    boolean tempDisconnected = false;
+    private ReaderDiscovery discovery = null;
+    private volatile ReaderDevice rfidReaderDevice = null;
+    volatile boolean tempDisconnected = false;
 
-    private String rfidMode = NONE;
+    private volatile String rfidMode = NONE;
 
     // Config set by setMode
-    private String filterTagId = null;
+    private volatile String filterTagId = null;
     private String tagData = null;
     private MEMORY_BANK memory_bank = null;
-    private MEMORY_BANK filter_memory_bank = null;
+    private volatile MEMORY_BANK filter_memory_bank = null;
     private int readLength = 0;
-    private int readLengthOffset = 0;
+    private volatile int readLengthOffset = 0;
     private int writeDataOffset = 0;
 //    private int filterDataOffset = 0;
     private int antennaPower = ANTENNA_POWER_DEFAULT;
+    private volatile boolean uniqueInventory = false;
+    private volatile boolean binaryOutput = false;
+    private volatile int binaryFields = 0;
+    private volatile boolean tagMetadata = false;
+    // EpcDecoder grouping of unique tags counted in place of reporting them, -1 reports tags
+    private volatile int aggregateBy = -1;
+    private final ArrayList<PreFilterSpec> preFilters = new ArrayList<>();
+    // Null leaves the reader's singulation settings alone
+    private SingulationProfile singulationProfile = null;
+
+    // Settings last applied to the connected reader
+    private final ReaderConfigMirror configMirror = new ReaderConfigMirror();
+    private Antennas.AntennaRfConfig antennaRfConfig = null;
 
     private LOCK_DATA_FIELD lock_memory = null;
     private long lock_password = 0;
 
-    private Boolean active = false;
+    // Access parameters compiled by setMode for read, write and permaLock
+    private AccessPlan accessPlan = null;
+
+    // Pending jobs in write_batch mode
+    private final ArrayList<EncodeJob> encodeJobs = new ArrayList<>();
+    private volatile boolean encodeCancelled = false;
+
+    private volatile boolean active = false;
     private ReadableMap config = null;
     private Boolean deferTriggerReleased = false;
 
+    // Tags seen in unique inventory mode
+    private final InventoryTally inventoryTally = new InventoryTally();
+    // Unique tags per group in aggregate mode, and those that could not be decoded
+    private final GroupCounter groupCounter = new GroupCounter();
+    private final AtomicInteger undecodedTags = new AtomicInteger();
+    // Decoder of the thread draining reads
+    private final EpcDecoder epcDecoder = new EpcDecoder();
+    // Banks read with each inventoried tag, and the read sequence while it runs
+    private final BankReadAssembler bankReads = new BankReadAssembler();
+    private int tidLength = 0;
+    private int userOffset = 0;
+    private int userLength = USER_LENGTH_DEFAULT;
+    private volatile boolean sequenceRunning = false;
+    // Targets of locate mode and the task sending their distances, only touched on this thread
+    private volatile ProximityTracker proximity = null;
+    private int locateRate = LOCATE_RATE_DEFAULT;
+    private ScheduledFuture<?> locateTask = null;
+    // Expected tags of the inventory, replaced on this thread
+    private volatile ManifestReconciler manifest = null;
+    // Persistent store of the inventory session, opened and closed on this thread
+    private volatile SessionStore sessionStore = null;
+
+    // Fetch size for getReadTagsEx, adapted to the read rate
+    private final FetchSizer fetchSizer = new FetchSizer(FETCH_MIN_DEFAULT, FETCH_MAX_DEFAULT, FETCH_INITIAL);
+    private final ReaderStats readerStats = new ReaderStats();
+    // Periodic StatsEvent, replaced by any thread under statsLock
+    private final Object statsLock = new Object();
+    private ScheduledFuture<?> statsTask = null;
+    // Trigger press to first result, marked across the event and scanner threads
+    private final TriggerTrace triggerTrace = new TriggerTrace(TRIGGER_TRACE_WINDOW);
+
+    // Packs inventory tags for the binary output format, used on the reader event thread only
+    private final TagBatchEncoder tagBatchEncoder = new TagBatchEncoder();
+
+    // Timers for short deferred work off the reader event thread, slow work such as reader
+    // discovery runs on threads of its own so it does not delay the timers
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Connect retries, only touched on this thread
+    private final ConnectBackoff connectBackoff = new ConnectBackoff(CONNECT_MAX_ATTEMPTS, CONNECT_BASE_DELAY, CONNECT_MAX_DELAY);
+    private ScheduledFuture<?> connectRetry = null;
+    private int connectGeneration = 0;
+
+    // Warm connection across pause, only touched on this thread except the timeout
+    private volatile int keepAliveTimeout = 0;
+    private ScheduledFuture<?> keepAliveTimer = null;
+    private int keepAliveGeneration = 0;
+    private boolean warmPaused = false;
+
+    // Additional readers by name, only touched on this thread
+    private final HashMap<String, ReaderSession> sessions = new HashMap<>();
+    private final ReaderSession.Listener sessionListener = new ReaderSession.Listener() {
+        @Override
+        public void onReadNotify(ReaderSession session) {
+            drainReads(session);
+        }
+
+        @Override
+        public void onStatus(String reader, String status) {
+            if ("inventoryStop".equals(status)) {
+                // Tags of the session may be waiting in a batch with only a size limit
+                tagBatcher.flush();
+            }
+            WritableMap event = Arguments.createMap();
+            event.putString("RFIDStatusEvent", status);
+            event.putString("reader", reader);
+            dispatchEvent("RFIDStatusEvent", event);
+        }
+
+        @Override
+        public boolean isTagMetadata() {
+            return tagMetadata;
+        }
+
+        @Override
+        public void post(Runnable command) {
+            RFIDScannerThread.this.post(command);
+        }
+    };
+
+    // Source of reads for the pipeline, the simulated backend replaces the reader when set
+    private volatile ZebraReaderBackend zebraBackend = null;
+    private volatile SimulatedReaderBackend simulatedBackend = null;
+    // Fetch flyweights, used by whichever thread drains reads
+    private TagRead[] tagReads = new TagRead[0];
+    private final AccessResult accessResult = new AccessResult();
+
+    // Coalesces inventory tags into TagsEvent batches when a flush policy is set
+    private final TagBatcher tagBatcher;
+
     public RFIDScannerThread(ReactApplicationContext context) {
         this.context = context;
+        this.tagBatcher = new TagBatcher(scheduler, new TagBatcher.Listener() {
+            @Override
+            public void onBatch(String reader, ArrayList<String> tags, long since) {
+                WritableArray rfidTags = Arguments.createArray();
+                for (String tag : tags) {
+                    rfidTags.pushString(tag);
+                }
+                dispatchTags(reader, rfidTags);
+                readerStats.recordDrainLatency((System.nanoTime() - since) / 1000);
+            }
+        });
+    }
+
+    // Reader operations are queued here and run one at a time by this thread
+    private final LinkedBlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    private volatile boolean running = true;
+
+    public void run() {
+        while (running) {
+            Runnable command;
+            try {
+                command = commands.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                command.run();
+            } catch (Exception e) {
+                log("RFID - command failed: " + e.getMessage());
+            }
+        }
+        log("RFID - Scanner thread stopped");
     }
 
-    public void run() {}
+    private void post(Runnable command) {
+        if (running) {
+            commands.offer(command);
+        }
+    }
 
     public abstract void dispatchEvent(String name, WritableMap data);
     public abstract void dispatchEvent(String name, String data);
     public abstract void dispatchEvent(String name, WritableArray data);
 
+    // --------
+    // Commands
+    // --------
+    public void init(final Context context) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doInit(context);
+            }
+        });
+    }
+
+    public void initSimulated(final ReadableMap config) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doInitSimulated(config);
+            }
+        });
+    }
+
+    public void reconnect() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doReconnect();
+            }
+        });
+    }
+
+    public void refreshReaders() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (discovery != null) {
+                    discovery.refresh(ENUM_TRANSPORT.SERVICE_SERIAL);
+                } else {
+                    log("refreshReaders: not initialised");
+                }
+            }
+        });
+    }
+
+    public void cancelConnect() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doCancelConnect();
+            }
+        });
+    }
+
+    public void shutdown() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doShutdown();
+            }
+        });
+    }
+
+    public void connectReader(final String name, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doConnectReader(name, promise);
+            }
+        });
+    }
+
+    public void disconnectReader(final String name) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                ReaderSession session = sessions.remove(name);
+                if (session != null) {
+                    session.disconnect();
+                    sessionListener.onStatus(name, "closed");
+                } else {
+                    log("disconnectReader: " + name + " not connected");
+                }
+            }
+        });
+    }
+
+    public void setReaderMode(final String name, final String mode, final ReadableMap config) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                ReaderSession session = sessions.get(name);
+                if (session == null) {
+                    log("setReaderMode: " + name + " not connected");
+                    return;
+                }
+                int power = ANTENNA_POWER_DEFAULT;
+                if (config != null && config.hasKey(ANTENNA_POWER)) {
+                    power = Math.max(100, Math.min(300, config.getInt(ANTENNA_POWER)));
+                }
+                if (!INVENTORY.equals(mode) && !NONE.equals(mode)) {
+                    log("setReaderMode: " + mode + " not supported on additional readers");
+                }
+                session.setMode(INVENTORY.equals(mode), power);
+            }
+        });
+    }
+
+    public void getReaders(final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doGetReaders(promise);
+            }
+        });
+    }
+
+    public void setMode(final String mode, final ReadableMap config) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doSetMode(mode, config);
+            }
+        });
+    }
+
+    public void cancel() {
+        // Stops a running encode batch between jobs
+        encodeCancelled = true;
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doCancel();
+            }
+        });
+    }
+
+    public void getInventorySummary(final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doGetInventorySummary(promise);
+            }
+        });
+    }
+
+    public void clearInventory() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                inventoryTally.clear();
+                clearAggregate();
+                ManifestReconciler reconciler = manifest;
+                if (reconciler != null) {
+                    reconciler.reset();
+                }
+            }
+        });
+    }
+
+    // --------
+    // Manifest
+    // --------
+    /**
+     * Loads the expected tag IDs. Inventory then reports tags as ReconcileEvent deltas of
+     * found and unexpected tags, in place of TagEvent and TagsEvent.
+     */
+    public void loadManifest(final ReadableArray ids, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                ArrayList<String> list = new ArrayList<>(ids.size());
+                for (int i = 0; i < ids.size(); i++) {
+                    list.add(ids.getString(i));
+                }
+                ManifestReconciler reconciler = new ManifestReconciler(list, list.size());
+                manifest = reconciler;
+                log("Manifest loaded: " + reconciler.getExpectedCount() + " tags");
+                promise.resolve(reconcileCounts(reconciler, Arguments.createMap()));
+            }
+        });
+    }
+
+    /**
+     * Resolves the decoded fields of each ID, or null for IDs of no supported scheme.
+     */
+    public void decodeEpcs(final ReadableArray ids, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                EpcDecoder decoder = new EpcDecoder();
+                WritableArray decoded = Arguments.createArray();
+                for (int i = 0; i < ids.size(); i++) {
+                    String id = ids.getString(i);
+                    if (id != null && decoder.decode(id)) {
+                        decoded.pushMap(decodedFields(decoder));
+                    } else {
+                        decoded.pushNull();
+                    }
+                }
+                promise.resolve(decoded);
+            }
+        });
+    }
+
+    /**
+     * Resolves the counts of all groups of aggregate mode.
+     */
+    public void getAggregate(final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                final WritableArray groups = Arguments.createArray();
+                groupCounter.forEach(new GroupCounter.Visitor() {
+                    @Override
+                    public void visit(long key, int count) {
+                        groups.pushMap(groupEntry(key, count));
+                    }
+                });
+                WritableMap result = Arguments.createMap();
+                result.putArray("groups", groups);
+                result.putInt("undecoded", undecodedTags.get());
+                promise.resolve(result);
+            }
+        });
+    }
+
+    public void clearManifest() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                manifest = null;
+            }
+        });
+    }
+
+    /**
+     * Resolves the counts and a page of the tags not found yet, with the query keys offset
+     * and limit as for querySession.
+     */
+    public void getMissing(final ReadableMap query, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doGetMissing(query, promise);
+            }
+        });
+    }
+
+    // --------
+    // Sessions
+    // --------
+    /**
+     * Opens the named inventory session, resuming it if it exists, and records inventory reads
+     * into it until it is closed.
+     */
+    public void openSession(final String name, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doOpenSession(name, promise);
+            }
+        });
+    }
+
+    public void closeSession() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doCloseSession();
+            }
+        });
+    }
+
+    /**
+     * Resolves a page of the open session's tags in the order first seen. Query keys are
+     * offset, limit and since, which skips tags not seen since that time.
+     */
+    public void querySession(final ReadableMap query, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doQuerySession(query, promise);
+            }
+        });
+    }
+
+    public void listSessions(final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doListSessions(promise);
+            }
+        });
+    }
+
+    public void deleteSession(final String name, final Promise promise) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doDeleteSession(name, promise);
+            }
+        });
+    }
+
+    public void getStats(Promise promise) {
+        promise.resolve(buildStats());
+    }
+
+    public void resetStats() {
+        readerStats.reset();
+        triggerTrace.reset();
+    }
+
+    /**
+     * Sends a StatsEvent every interval ms, 0 stops sending.
+     */
+    public void setStatsInterval(int interval) {
+        synchronized (statsLock) {
+            if (statsTask != null) {
+                statsTask.cancel(false);
+                statsTask = null;
+            }
+            if (interval <= 0) return;
+            statsTask = scheduler.scheduleAtFixedRate(new Runnable() {
+                private long lastTags = readerStats.getTagsDrained();
+                private long lastTime = System.currentTimeMillis();
+
+                @Override
+                public void run() {
+                    WritableMap stats = buildStats();
+                    long tags = readerStats.getTagsDrained();
+                    long time = System.currentTimeMillis();
+                    // Rate over the last interval, next to the average since the last reset
+                    stats.putDouble("intervalTagsPerSecond", time > lastTime && tags >= lastTags
+                            ? (tags - lastTags) * 1000.0 / (time - lastTime) : 0);
+                    lastTags = tags;
+                    lastTime = time;
+                    dispatchEvent("StatsEvent", stats);
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds the statistics of the event dispatch, which lives outside the thread.
+     */
+    protected void putDispatchStats(WritableMap stats) {
+    }
+
+    private WritableMap buildStats() {
+        WritableMap stats = Arguments.createMap();
+        stats.putDouble("readNotifications", readerStats.getReadNotifications());
+        stats.putDouble("drainIterations", readerStats.getDrainIterations());
+        stats.putDouble("maxDrainIterations", readerStats.getMaxDrainIterations());
+        stats.putDouble("tagsDrained", readerStats.getTagsDrained());
+        WritableArray histogram = Arguments.createArray();
+        for (int i = 0; i < ReaderStats.DRAIN_BUCKETS; i++) {
+            histogram.pushDouble(readerStats.getDrainHistogram(i));
+        }
+        stats.putArray("drainIterationHistogram", histogram);
+        WritableArray batchHistogram = Arguments.createArray();
+        for (int i = 0; i < ReaderStats.BATCH_BUCKETS; i++) {
+            batchHistogram.pushDouble(readerStats.getBatchHistogram(i));
+        }
+        stats.putArray("batchSizeHistogram", batchHistogram);
+        stats.putInt("fetchSize", fetchSizer.get());
+
+        long elapsed = System.currentTimeMillis() - readerStats.getResetTime();
+        stats.putDouble("tagsPerSecond", elapsed > 0 ? readerStats.getTagsDrained() * 1000.0 / elapsed : 0);
+        stats.putInt("uniqueTags", inventoryTally.size());
+        stats.putMap("drainLatency", latencyStats(readerStats.getDrainLatency()));
+        WritableMap trigger = Arguments.createMap();
+        trigger.putMap("queueAndConfig", windowStats(triggerTrace.getWindow(TriggerTrace.QUEUE_AND_CONFIG)));
+        trigger.putMap("radioStart", windowStats(triggerTrace.getWindow(TriggerTrace.RADIO_START)));
+        trigger.putMap("firstRead", windowStats(triggerTrace.getWindow(TriggerTrace.FIRST_READ)));
+        trigger.putMap("total", windowStats(triggerTrace.getWindow(TriggerTrace.TOTAL)));
+        stats.putMap("triggerLatency", trigger);
+
+        stats.putDouble("connectAttempts", readerStats.getConnectAttempts());
+        stats.putDouble("connects", readerStats.getConnects());
+        stats.putDouble("reconnects", readerStats.getReconnects());
+        stats.putDouble("disconnects", readerStats.getDisconnects());
+        putDispatchStats(stats);
+        return stats;
+    }
+
+    /**
+     * @return count and percentiles of a recorder, in ms
+     */
+    static WritableMap latencyStats(LatencyRecorder recorder) {
+        WritableMap latency = Arguments.createMap();
+        latency.putDouble("count", recorder.getCount());
+        latency.putDouble("p50", recorder.getPercentile(50) / 1000.0);
+        latency.putDouble("p90", recorder.getPercentile(90) / 1000.0);
+        latency.putDouble("p99", recorder.getPercentile(99) / 1000.0);
+        latency.putDouble("max", recorder.getMax() / 1000.0);
+        return latency;
+    }
+
+    /**
+     * @return count and percentiles of the last operations of a trigger trace interval, in ms
+     */
+    private static WritableMap windowStats(TriggerTrace.Window window) {
+        WritableMap latency = Arguments.createMap();
+        latency.putInt("count", window.size());
+        latency.putDouble("p50", window.getPercentile(50) / 1000.0);
+        latency.putDouble("p90", window.getPercentile(90) / 1000.0);
+        latency.putDouble("p99", window.getPercentile(99) / 1000.0);
+        latency.putDouble("max", window.getPercentile(100) / 1000.0);
+        return latency;
+    }
+
+    public void onHostResume() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doHostResume();
+            }
+        });
+    }
+
+    public void onHostPause() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doHostPause();
+            }
+        });
+    }
+
+    /**
+     * Keeps the reader connected for up to idleTimeout ms while the app is paused,
+     * 0 disconnects on pause.
+     */
+    public void setKeepAlive(int idleTimeout) {
+        keepAliveTimeout = Math.max(0, idleTimeout);
+    }
+
+    public void onHostDestroy() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doCancel();
+                doShutdown();
+            }
+        });
+    }
+
+    public void onCatalystInstanceDestroy() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                doCancel();
+                doShutdown();
+                doCloseSession();
+                setStatsInterval(0);
+                scheduler.shutdownNow();
+                running = false;
+            }
+        });
+    }
+
+    private final Runnable triggerPressed = new Runnable() {
+        @Override
+        public void run() {
+            doTriggerPressed();
+        }
+    };
+
+    private final Runnable triggerReleased = new Runnable() {
+        @Override
+        public void run() {
+            if (triggerTrace.isOpen()) {
+                // Released before any result
+                endTriggerTrace(0);
+            }
+            doCancel();
+        }
+    };
+
+    private final Runnable flushSession = new Runnable() {
+        @Override
+        public void run() {
+            SessionStore store = sessionStore;
+            if (store != null) {
+                store.flush();
+            }
+        }
+    };
+
+    /**
+     * Ends the trigger trace and sends its intervals as a TriggerLatencyEvent, in ms.
+     *
+     * @param firstResult time of the first result, 0 if the operation had none
+     */
+    private void endTriggerTrace(long firstResult) {
+        if (firstResult != 0) {
+            triggerTrace.mark(TriggerTrace.FIRST_RESULT, firstResult);
+        }
+        long[] intervals = new long[TriggerTrace.INTERVALS];
+        if (!triggerTrace.end(intervals)) return;
+        WritableMap event = Arguments.createMap();
+        event.putString("mode", rfidMode);
+        event.putBoolean("result", firstResult != 0);
+        putInterval(event, "queueAndConfig", intervals[TriggerTrace.QUEUE_AND_CONFIG]);
+        putInterval(event, "radioStart", intervals[TriggerTrace.RADIO_START]);
+        putInterval(event, "firstRead", intervals[TriggerTrace.FIRST_READ]);
+        putInterval(event, "total", intervals[TriggerTrace.TOTAL]);
+        dispatchEvent("TriggerLatencyEvent", event);
+    }
+
+    private static void putInterval(WritableMap event, String name, long micros) {
+        if (micros >= 0) {
+            event.putDouble(name, micros / 1000.0);
+        } else {
+            event.putNull(name);
+        }
+    }
+
     // -------
     // Helpers
     // -------
+    /**
+     * @return the simulated backend when one is set up, otherwise the connected Zebra reader
+     */
+    private ReaderBackend getBackend() throws Exception {
+        SimulatedReaderBackend simulated = simulatedBackend;
+        if (simulated != null) {
+            if (!simulated.isConnected()) {
+                throw new Exception("simulated reader not connected");
+            }
+            return simulated;
+        }
+        RFIDReader rfidReader = getConnectedRFIDReader();
+        ZebraReaderBackend backend = zebraBackend;
+        if (backend == null || backend.reader != rfidReader) {
+            backend = new ZebraReaderBackend(rfidReader, rfidReaderDevice.getName());
+            zebraBackend = backend;
+        }
+        return backend;
+    }
+
     private RFIDReader getConnectedRFIDReader() throws Exception {
         if (rfidReaderDevice != null) {
             if (rfidReaderDevice.getRFIDReader().isConnected()) {
@@ -105,6 +856,19 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
         readLengthOffset = 0;
         writeDataOffset = 0;
         antennaPower = ANTENNA_POWER_DEFAULT;
+        uniqueInventory = false;
+        binaryOutput = false;
+        binaryFields = 0;
+        tagMetadata = false;
+        aggregateBy = -1;
+        proximity = null;
+        locateRate = LOCATE_RATE_DEFAULT;
+        bankReads.configure(0);
+        tidLength = 0;
+        userOffset = 0;
+        userLength = USER_LENGTH_DEFAULT;
+        preFilters.clear();
+        singulationProfile = null;
     }
     private void LogEvent(String message) {
         WritableMap event = Arguments.createMap();
@@ -118,18 +882,14 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
     // ----------
     // Life Cycle
     // ----------
-    public void init(Context context) {
-        // Register receiver
-        readers = new Readers(context, ENUM_TRANSPORT.BLUETOOTH);
-        try {
-            ArrayList<ReaderDevice> availableRFIDReaderList = readers.GetAvailableRFIDReaderList();
-            deviceList = availableRFIDReaderList;
-            log("RFID - Scanner thread initialized");
-        } catch (InvalidUsageException e) {
-            log("RFID - Init scanner error - invalid message: " + e.getMessage());
-        } catch (NullPointerException ex) {
-            log("RFID - Blue tooth not support on device");
+    private void doInit(Context context) {
+        stopSimulated();
+        if (discovery == null) {
+            discovery = new ReaderDiscovery(context, DISCOVERY_TTL);
         }
+        // Register receiver, enumerating in the background
+        discovery.refresh(ENUM_TRANSPORT.BLUETOOTH);
+        log("RFID - Scanner thread initialized");
 
         tempDisconnected = false;
         active = false;
@@ -138,33 +898,108 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
         this.connect();
     }
 
+    /**
+     * Starts connecting to the reader. Attempts run on this thread, failed attempts are retried
+     * after a backoff delay scheduled on the timer so other commands run in between.
+     */
     private void connect() {
-        String err = null;
         if (this.rfidReaderDevice != null) {
             if (rfidReaderDevice.getRFIDReader().isConnected()) return;
             disconnect();
         }
+        doCancelConnect();
+        connectBackoff.start(SystemClock.elapsedRealtime());
+        connectAttempt(connectGeneration);
+    }
+
+    /**
+     * Stops retrying a pending connect.
+     */
+    private void doCancelConnect() {
+        connectGeneration++;
+        if (connectRetry != null) {
+            connectRetry.cancel(false);
+            connectRetry = null;
+        }
+    }
+
+    private void connectAttempt(final int generation) {
+        // A retry scheduled before a cancel or a new connect is stale
+        if (generation != connectGeneration) return;
+        connectRetry = null;
+
+        connectBackoff.attempt();
+        readerStats.recordConnectAttempt();
+        String err = connectOnce();
+        if (err == null) {
+            readerStats.recordConnect();
+            long connectTime = SystemClock.elapsedRealtime() - connectBackoff.getStartTime();
+            WritableMap event = Arguments.createMap();
+            event.putString("RFIDStatusEvent", "opened");
+            event.putInt("attempts", connectBackoff.getAttempts());
+            event.putDouble("connectTime", connectTime);
+            this.dispatchEvent("RFIDStatusEvent", event);
+            Log.i("RFID", "Connected to " + rfidReaderDevice.getName() + " after "
+                    + connectBackoff.getAttempts() + " attempts, " + connectTime + " ms");
+            return;
+        }
+
+        long delay = connectBackoff.nextDelay();
+        if (delay < 0) {
+            log("Connect RFID - " + err + ", giving up after " + connectBackoff.getAttempts() + " attempts");
+            WritableMap event = Arguments.createMap();
+            event.putString("RFIDStatusEvent", "connectFailed");
+            event.putString("error", err);
+            event.putInt("attempts", connectBackoff.getAttempts());
+            this.dispatchEvent("RFIDStatusEvent", event);
+            return;
+        }
+        log("Connect RFID - " + err + ", retrying in " + delay + " ms");
+        connectRetry = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        connectAttempt(generation);
+                    }
+                });
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes a single attempt to connect to the first available reader.
+     *
+     * @return null if connected, otherwise the error
+     */
+    private String connectOnce() {
+        String err = null;
         try {
             ArrayList<ReaderDevice> availableRFIDReaderList = null;
-            try {
-                readers = new Readers(this.context, ENUM_TRANSPORT.SERVICE_SERIAL);
-                availableRFIDReaderList = readers.GetAvailableRFIDReaderList();
-                deviceList = availableRFIDReaderList;
-            } catch (InvalidUsageException e) {
-                log("connect RFID - Init scanner error - invalid message: " + e.getMessage());
-            } catch (NullPointerException ex) {
-                log("RFID - Blue tooth not support on device");
+            if (discovery != null) {
+                try {
+                    availableRFIDReaderList = discovery.getDevices(ENUM_TRANSPORT.SERVICE_SERIAL);
+                } catch (InvalidUsageException e) {
+                    log("connect RFID - Init scanner error - invalid message: " + e.getMessage());
+                }
             }
 
             int listSize = (availableRFIDReaderList == null) ? 0 : availableRFIDReaderList.size();
+            if (listSize == 0 && discovery != null) {
+                // Enumerate again on the next attempt rather than trusting an empty list
+                discovery.invalidate(ENUM_TRANSPORT.SERVICE_SERIAL);
+            }
             if (listSize > 0) {
                 ReaderDevice readerDevice = availableRFIDReaderList.get(0);
                 RFIDReader rfidReader = readerDevice.getRFIDReader();
                 // Connect to RFID reader
                 if (rfidReader != null) {
+                    boolean regionTried = false;
                     while (true) {
                         try {
                             rfidReader.connect();
+                            invalidateReaderConfig();
 
                             rfidReader.Config.getDeviceStatus(true, false, false);
                             rfidReader.Events.addEventsListener(this);
@@ -183,7 +1018,8 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
                             setTriggerMode(rfidReader);
                             break;
                         } catch (OperationFailureException ex) {
-                            if (ex.getResults() == RFIDResults.RFID_READER_REGION_NOT_CONFIGURED) {
+                            if (ex.getResults() == RFIDResults.RFID_READER_REGION_NOT_CONFIGURED && !regionTried) {
+                                regionTried = true;
                                 // Get and Set regulatory configuration settings
                                 try {
                                     RegulatoryConfig regulatoryConfig = rfidReader.Config.getRegulatoryConfig();
@@ -226,6 +1062,15 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
                             break;
                         } catch (Exception exc) {
                             err = exc.getMessage();
+                            break;
+                        }
+                    }
+                    if (err != null && rfidReader.isConnected()) {
+                        // Connected but setup failed, start the next attempt from scratch
+                        try {
+                            rfidReader.disconnect();
+                        } catch (Exception e) {
+                            Log.w("RFID", "connect: error disconnecting after failed setup: " + e.getMessage());
                         }
                     }
                 } else {
@@ -235,11 +1080,7 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
                     // Connect success
                     rfidReaderDevice = readerDevice;
                     tempDisconnected = false;
-                    WritableMap event = Arguments.createMap();
-                    event.putString("RFIDStatusEvent", "opened");
-                    this.dispatchEvent("RFIDStatusEvent", event);
-                    Log.i("RFID", "Connected to " + rfidReaderDevice.getName());
-                    return;
+                    return null;
                 }
             } else {
                 err = "No connected device";
@@ -247,12 +1088,21 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
         } catch (InvalidUsageException e) {
             err = "connect: invalid usage error: " + e.getMessage();
         }
-        if (err != null) {
-            log("Connect RFID - " + err);
-        }
+        return err;
     }
 
-    public void reconnect() {
+    private void doReconnect() {
+        SimulatedReaderBackend simulated = simulatedBackend;
+        if (simulated != null) {
+            if (!simulated.isConnected()) {
+                simulated.connect();
+                WritableMap event = Arguments.createMap();
+                event.putString("RFIDStatusEvent", "opened");
+                event.putBoolean("simulated", true);
+                this.dispatchEvent("RFIDStatusEvent", event);
+            }
+            return;
+        }
         if (rfidReaderDevice != null) {
             if (tempDisconnected) {
                 RFIDReader rfidReader = rfidReaderDevice.getRFIDReader();
@@ -261,6 +1111,7 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
                     try {
                         // Stop inventory
                         rfidReader.reconnect();
+                        invalidateReaderConfig();
                     } catch (InvalidUsageException e) {
                         err = "reconnect: invalid usage error: " + e.getMessage();
                     } catch (OperationFailureException ex) {
@@ -270,6 +1121,7 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
                         Log.e("RFID", err);
                     } else {
                         tempDisconnected = false;
+                        readerStats.recordReconnect();
                         WritableMap event = Arguments.createMap();
                         event.putString("RFIDStatusEvent", "opened");
                         this.dispatchEvent("RFIDStatusEvent", event);
@@ -326,52 +1178,290 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
 
     }
 
-    public void shutdown() {
+    private void doShutdown() {
+        stopSimulated();
+        doCancelConnect();
+        cancelKeepAlive();
+        disconnectSessions();
         if (this.rfidReaderDevice != null) {
             disconnect();
         }
         // Unregister receiver
-        if (readers != null) {
-            readers.Dispose();
-            readers = null;
+        if (discovery != null) {
+            discovery.dispose();
+            discovery = null;
+        }
+    }
+    /**
+     * Replaces the reader with a simulated one generating the configured tag population.
+     */
+    private void doInitSimulated(ReadableMap config) {
+        doShutdown();
+        SimulatedReaderBackend.Profile profile = new SimulatedReaderBackend.Profile();
+        if (config != null) {
+            if (config.hasKey("population")) profile.population = config.getInt("population");
+            if (config.hasKey("read_rate")) profile.readRate = config.getInt("read_rate");
+            if (config.hasKey("duplicate_ratio")) profile.duplicateRatio = config.getDouble("duplicate_ratio");
+            if (config.hasKey("rssi_mean")) profile.rssiMean = config.getInt("rssi_mean");
+            if (config.hasKey("rssi_spread")) profile.rssiSpread = config.getInt("rssi_spread");
+            if (config.hasKey("antennas")) profile.antennas = config.getInt("antennas");
+            if (config.hasKey("disconnect_rate")) profile.disconnectRate = config.getDouble("disconnect_rate");
+            if (config.hasKey("trigger_interval")) profile.triggerInterval = config.getInt("trigger_interval");
+            if (config.hasKey("trigger_hold")) profile.triggerHold = config.getInt("trigger_hold");
+            if (config.hasKey("seed")) profile.seed = (long) config.getDouble("seed");
+        }
+        SimulatedReaderBackend simulated = new SimulatedReaderBackend(profile, scheduler, simulatedListener);
+        simulated.connect();
+        simulatedBackend = simulated;
+
+        active = false;
+        rfidMode = NONE;
+        resetModeData();
+        WritableMap event = Arguments.createMap();
+        event.putString("RFIDStatusEvent", "opened");
+        event.putInt("attempts", 1);
+        event.putDouble("connectTime", 0);
+        event.putBoolean("simulated", true);
+        this.dispatchEvent("RFIDStatusEvent", event);
+        Log.i("RFID", "Simulated reader with " + profile.population + " tags at " + profile.readRate + " reads/s");
+    }
+
+    private void stopSimulated() {
+        SimulatedReaderBackend simulated = simulatedBackend;
+        if (simulated != null) {
+            simulatedBackend = null;
+            active = false;
+            simulated.disconnect();
         }
-        deviceList = null;
     }
+
     // ----------
     // App Events
     // ----------
 
-    public void onHostResume() {
-        if (readers != null) {
-            this.connect();
+    private void doHostPause() {
+        doCancel();
+        doCancelConnect();
+        int timeout = keepAliveTimeout;
+        if (timeout > 0 && rfidReaderDevice != null && rfidReaderDevice.getRFIDReader().isConnected()) {
+            // Stay connected, but stop handling trigger and tag events while in the background
+            try {
+                rfidReaderDevice.getRFIDReader().Events.removeEventsListener(this);
+            } catch (InvalidUsageException e) {
+                log("pause: invalid usage error when removing events: " + e.getMessage());
+            } catch (OperationFailureException ex) {
+                log("pause: error removing events: " + ex.getResults().toString());
+            }
+            pauseSessions();
+            final int generation = ++keepAliveGeneration;
+            keepAliveTimer = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (generation == keepAliveGeneration && warmPaused) {
+                                log("RFID - Keep alive expired");
+                                warmPaused = false;
+                                keepAliveTimer = null;
+                                disconnect();
+                                disconnectSessions();
+                            }
+                        }
+                    });
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+            warmPaused = true;
+            Log.i("RFID", "Keeping " + rfidReaderDevice.getName() + " connected for " + timeout + " ms");
         } else {
-             Log.e("RFID", "Can't resume - reader is null");
+            disconnect();
+            disconnectSessions();
         }
     }
 
-    public void onHostPause() {
-        this.cancel();
-        this.disconnect();
-    }
-
-    public void onHostDestroy() {
-        this.cancel();
-        shutdown();
+    private void cancelKeepAlive() {
+        keepAliveGeneration++;
+        warmPaused = false;
+        if (keepAliveTimer != null) {
+            keepAliveTimer.cancel(false);
+            keepAliveTimer = null;
+        }
     }
 
-    public void onCatalystInstanceDestroy() {
-        this.cancel();
-        shutdown();
+    private void doHostResume() {
+        if (simulatedBackend != null) {
+            // Simulated readers are not disconnected on pause
+            return;
+        }
+        boolean warm = warmPaused;
+        cancelKeepAlive();
+        if (warm) {
+            resumeSessions();
+        }
+        if (warm && rfidReaderDevice != null && rfidReaderDevice.getRFIDReader().isConnected()) {
+            // Still connected from before the pause, only re-arm the listener
+            try {
+                rfidReaderDevice.getRFIDReader().Events.addEventsListener(this);
+                WritableMap event = Arguments.createMap();
+                event.putString("RFIDStatusEvent", "opened");
+                event.putInt("attempts", 0);
+                event.putDouble("connectTime", 0);
+                event.putBoolean("warm", true);
+                this.dispatchEvent("RFIDStatusEvent", event);
+                Log.i("RFID", "Resumed " + rfidReaderDevice.getName() + " without reconnecting");
+                return;
+            } catch (InvalidUsageException e) {
+                log("resume: invalid usage error when adding events: " + e.getMessage());
+            } catch (OperationFailureException ex) {
+                log("resume: error adding events: " + ex.getResults().toString());
+            }
+            // Fall back to a full connect
+            disconnect();
+        }
+        if (discovery != null) {
+            this.connect();
+        } else {
+             Log.e("RFID", "Can't resume - reader is null");
+        }
     }
 
     // ------------------
-    // General Operations
+    // Additional Readers
     // ------------------
-    public void setMode(String mode, ReadableMap config) {
-        if (active) {
-            cancel();
+    private ReaderDevice findDevice(String name) throws InvalidUsageException {
+        if (discovery == null) return null;
+        for (ENUM_TRANSPORT transport : new ENUM_TRANSPORT[] { ENUM_TRANSPORT.SERVICE_SERIAL, ENUM_TRANSPORT.BLUETOOTH }) {
+            for (ReaderDevice device : discovery.getDevices(transport)) {
+                if (name.equals(device.getName())) return device;
+            }
         }
-        resetModeData();
+        return null;
+    }
+
+    private void doConnectReader(String name, Promise promise) {
+        String err = null;
+        try {
+            ReaderSession session = sessions.get(name);
+            if (session != null && session.isConnected()) {
+                promise.resolve(name);
+                return;
+            } else if (session != null) {
+                // Dropped since it was connected, start over
+                sessions.remove(name);
+                session.disconnect();
+            }
+            if (rfidReaderDevice != null && name.equals(rfidReaderDevice.getName())) {
+                err = name + " is the primary reader";
+            } else {
+                ReaderDevice device = findDevice(name);
+                if (device == null) {
+                    err = name + " not found";
+                } else {
+                    FetchSizer sessionFetchSizer = new FetchSizer(fetchSizer.getMin(), fetchSizer.getMax(), FETCH_INITIAL);
+                    session = new ReaderSession(device, ANTENNA_POWER_DEFAULT, sessionFetchSizer, sessionListener);
+                    try {
+                        session.connect();
+                    } catch (InvalidUsageException e) {
+                        // Release the reader if it connected but could not be set up
+                        session.disconnect();
+                        throw e;
+                    } catch (OperationFailureException ex) {
+                        session.disconnect();
+                        throw ex;
+                    }
+                    sessions.put(name, session);
+                    sessionListener.onStatus(name, "opened");
+                    Log.i("RFID", "Connected additional reader " + name);
+                }
+            }
+        } catch (InvalidUsageException e) {
+            err = "connectReader: invalid usage error: " + e.getMessage();
+        } catch (OperationFailureException ex) {
+            err = "connectReader: " + ex.getResults().toString();
+        }
+        if (err != null) {
+            log(err);
+            promise.reject("RFID", err);
+        } else {
+            promise.resolve(name);
+        }
+    }
+
+    private void doGetReaders(Promise promise) {
+        WritableArray result = Arguments.createArray();
+        try {
+            if (discovery != null) {
+                HashMap<String, Boolean> seen = new HashMap<>();
+                for (ENUM_TRANSPORT transport : new ENUM_TRANSPORT[] { ENUM_TRANSPORT.SERVICE_SERIAL, ENUM_TRANSPORT.BLUETOOTH }) {
+                    for (ReaderDevice device : discovery.getDevices(transport)) {
+                        String name = device.getName();
+                        if (seen.put(name, Boolean.TRUE) != null) continue;
+                        WritableMap reader = Arguments.createMap();
+                        reader.putString("name", name);
+                        reader.putBoolean("primary", rfidReaderDevice != null && name.equals(rfidReaderDevice.getName()));
+                        ReaderSession session = sessions.get(name);
+                        reader.putBoolean("connected", session != null ? session.isConnected()
+                                : rfidReaderDevice != null && name.equals(rfidReaderDevice.getName())
+                                        && rfidReaderDevice.getRFIDReader().isConnected());
+                        result.pushMap(reader);
+                    }
+                }
+            }
+            promise.resolve(result);
+        } catch (InvalidUsageException e) {
+            promise.reject("RFID", "getReaders: invalid usage error: " + e.getMessage());
+        }
+    }
+
+    private void startSessions() {
+        for (ReaderSession session : sessions.values()) {
+            session.start(tagMetadata);
+        }
+    }
+
+    private void stopSessions() {
+        for (ReaderSession session : sessions.values()) {
+            session.stop();
+        }
+    }
+
+    private void pauseSessions() {
+        for (ReaderSession session : sessions.values()) {
+            session.pause();
+        }
+    }
+
+    /**
+     * Re-arms sessions kept connected across pause, dropping those that disconnected meanwhile.
+     */
+    private void resumeSessions() {
+        Iterator<ReaderSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            ReaderSession session = iterator.next();
+            if (!session.resume()) {
+                iterator.remove();
+                session.disconnect();
+                sessionListener.onStatus(session.name, "closed");
+            }
+        }
+    }
+
+    private void disconnectSessions() {
+        for (ReaderSession session : sessions.values()) {
+            session.disconnect();
+            sessionListener.onStatus(session.name, "closed");
+        }
+        sessions.clear();
+    }
+
+    // ------------------
+    // General Operations
+    // ------------------
+    private void doSetMode(String mode, ReadableMap config) {
+        if (active) {
+            doCancel();
+        }
+        resetModeData();
 
         String memory_bank_string;
         String filter_memory_bank_string;
@@ -402,27 +1492,18 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
             if (this.filterTagId.length() > 64) {
                 this.filterTagId = this.filterTagId.substring(0, 64); // Max length for AccessFilter before SDK crash
             }
-            int filterLengthRest = filterTagId.length() % 4;
-            if (filterLengthRest > 0) {
-                this.filterTagId = filterTagId.substring(0, filterTagId.length() - filterLengthRest);
-            }
+            this.filterTagId = WordPadding.truncate(filterTagId);
         }
 
         if (config.hasKey(TAG_DATA)) {
-            this.tagData = config.getString(TAG_DATA);
-            int writeLengthRest = tagData.length() % 4;
-            if (writeLengthRest > 0) {
-                this.writeDataOffset = 4 - writeLengthRest;
-                this.tagData += StringUtils.repeat("0",writeDataOffset);
-            }
+            this.writeDataOffset = WordPadding.padding(config.getString(TAG_DATA).length());
+            this.tagData = WordPadding.pad(config.getString(TAG_DATA));
         }
 
         if (config.hasKey(READ_LENGTH)) {
-            this.readLength = config.getInt(READ_LENGTH) / 4;
-            int readLengthRest = config.getInt(READ_LENGTH) % 4;
-            if (readLengthRest > 0) {
-                this.readLength += 1;
-                this.readLengthOffset = 4 - readLengthRest;
+            this.readLength = WordPadding.words(config.getInt(READ_LENGTH));
+            this.readLengthOffset = WordPadding.padding(config.getInt(READ_LENGTH));
+            if (readLengthOffset > 0) {
                 log(readLength + " - " + readLengthOffset);
             }
         }
@@ -456,12 +1537,163 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
             antennaPower = ANTENNA_POWER_DEFAULT;
         }
 
+        if (config.hasKey(UNIQUE)) {
+            uniqueInventory = config.getBoolean(UNIQUE);
+        }
+        inventoryTally.clear();
+
+        int flushInterval = config.hasKey(FLUSH_INTERVAL) ? config.getInt(FLUSH_INTERVAL) : 0;
+        int flushMaxTags = config.hasKey(FLUSH_MAX_TAGS) ? config.getInt(FLUSH_MAX_TAGS) : 0;
+        tagBatcher.configure(flushInterval, flushMaxTags);
+
+        if (config.hasKey(TAG_METADATA)) {
+            tagMetadata = config.getBoolean(TAG_METADATA);
+        }
+
+        if (config.hasKey(AGGREGATE)) {
+            String grouping = config.getString(AGGREGATE);
+            if (AGGREGATE_GTIN.equals(grouping)) {
+                aggregateBy = EpcDecoder.GROUP_CLASS;
+            } else if (AGGREGATE_COMPANY_PREFIX.equals(grouping)) {
+                aggregateBy = EpcDecoder.GROUP_COMPANY_PREFIX;
+            } else {
+                log("aggregate: unknown grouping " + grouping);
+            }
+        }
+        clearAggregate();
+
+        if (config.hasKey(PRE_FILTERS)) {
+            ReadableArray filters = config.getArray(PRE_FILTERS);
+            for (int i = 0; i < filters.size(); i++) {
+                PreFilterSpec filter = PreFilterSpec.fromConfig(filters.getMap(i));
+                if (filter != null) {
+                    preFilters.add(filter);
+                } else {
+                    log("prefilters: skipping filter " + i + " without pattern");
+                }
+            }
+        }
+
+        if (config.hasKey(SINGULATION)) {
+            String name = config.getString(SINGULATION);
+            int tagPopulation = config.hasKey(TAG_POPULATION) ? config.getInt(TAG_POPULATION) : 0;
+            SingulationProfile profile = SingulationProfile.forName(name, tagPopulation);
+            if (profile != null) {
+                singulationProfile = profile;
+            } else {
+                log("singulation: unknown profile " + name);
+            }
+        }
+
+        if (config.hasKey(OUTPUT_FORMAT)) {
+            binaryOutput = FORMAT_BINARY.equals(config.getString(OUTPUT_FORMAT));
+        }
+        if (config.hasKey(BINARY_FIELDS)) {
+            ReadableArray fields = config.getArray(BINARY_FIELDS);
+            int flags = 0;
+            for (int i = 0; i < fields.size(); i++) {
+                switch (fields.getString(i)) {
+                    case FIELD_RSSI:
+                        flags |= TagBatchEncoder.FIELD_RSSI;
+                        break;
+                    case FIELD_ANTENNA:
+                        flags |= TagBatchEncoder.FIELD_ANTENNA;
+                        break;
+                    case FIELD_TIME:
+                        flags |= TagBatchEncoder.FIELD_TIME;
+                        break;
+                }
+            }
+            binaryFields = flags;
+        }
+
+        int fetchMin = config.hasKey(FETCH_MIN) ? config.getInt(FETCH_MIN) : FETCH_MIN_DEFAULT;
+        int fetchMax = config.hasKey(FETCH_MAX) ? config.getInt(FETCH_MAX) : FETCH_MAX_DEFAULT;
+        fetchSizer.configure(fetchMin, fetchMax);
+        for (ReaderSession session : sessions.values()) {
+            session.fetchSizer.configure(fetchMin, fetchMax);
+        }
+
+        compileAccessPlan(mode);
+
+        if (INVENTORY.equals(mode) && config.hasKey(READ_BANKS)) {
+            ReadableArray banks = config.getArray(READ_BANKS);
+            int mask = 0;
+            for (int i = 0; i < banks.size(); i++) {
+                String bank = banks.getString(i);
+                if ("tid".equals(bank)) {
+                    mask |= BankReadAssembler.bit(TagRead.BANK_TID);
+                } else if ("user".equals(bank)) {
+                    mask |= BankReadAssembler.bit(TagRead.BANK_USER);
+                } else if (!"epc".equals(bank)) {
+                    // The EPC is the tag ID, reported with every record
+                    log("read_banks: unknown bank " + bank);
+                }
+            }
+            bankReads.configure(mask);
+            if (config.hasKey(TID_LENGTH)) tidLength = Math.max(0, config.getInt(TID_LENGTH));
+            if (config.hasKey(USER_OFFSET)) userOffset = Math.max(0, config.getInt(USER_OFFSET));
+            if (config.hasKey(USER_LENGTH)) userLength = Math.max(0, config.getInt(USER_LENGTH));
+        }
+
+        if (LOCATE.equals(mode) && config.hasKey(TARGETS)) {
+            ReadableArray targets = config.getArray(TARGETS);
+            ArrayList<String> ids = new ArrayList<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                String id = targets.getString(i);
+                if (id != null && !id.isEmpty()) {
+                    ids.add(id);
+                }
+            }
+            double smoothing = config.hasKey(SMOOTHING) ? config.getDouble(SMOOTHING) : SMOOTHING_DEFAULT;
+            proximity = ids.isEmpty() ? null : new ProximityTracker(ids, smoothing);
+            if (config.hasKey(LOCATE_RATE)) {
+                locateRate = Math.max(1, Math.min(config.getInt(LOCATE_RATE), LOCATE_RATE_MAX));
+            }
+        }
+
+        encodeJobs.clear();
+        if (WRITE_BATCH.equals(mode) && config.hasKey(JOBS)) {
+            ReadableArray jobs = config.getArray(JOBS);
+            for (int i = 0; i < jobs.size(); i++) {
+                EncodeJob job = EncodeJob.fromConfig(jobs.getMap(i));
+                if (job != null) {
+                    encodeJobs.add(job);
+                } else {
+                    log("write_batch: skipping job " + i + " without filterTagId or tagData");
+                }
+            }
+        }
+
         this.rfidMode = mode;
         log("MODE: " + mode + " POWER: " + this.antennaPower);
     }
 
-    public void cancel() {
+    private void compileAccessPlan(String mode) {
+        String key = AccessPlan.key(mode, memory_bank, filter_memory_bank, filterTagId, tagData, readLength, lock_memory);
+        if (accessPlan != null && accessPlan.key.equals(key)) {
+            // Configuration unchanged, keep the compiled plan
+            return;
+        }
+        switch (mode) {
+            case READ:
+                accessPlan = AccessPlan.forRead(key, memory_bank, readLength, filter_memory_bank, filterTagId);
+                break;
+            case WRITE:
+                accessPlan = AccessPlan.forWrite(key, memory_bank, tagData, filter_memory_bank, filterTagId);
+                break;
+            case PERMA_LOCK:
+                accessPlan = AccessPlan.forLock(key, lock_memory, filter_memory_bank, filterTagId);
+                break;
+            default:
+                accessPlan = null;
+                break;
+        }
+    }
+
+    private void doCancel() {
         String err = null;
+        stopSessions();
         try {
             switch (rfidMode) {
                 case INVENTORY:
@@ -472,6 +1704,9 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
                 case PERMA_LOCK:
                     stopTagAccess();
                     break;
+                case LOCATE:
+                    stopLocate();
+                    break;
                 case NONE:
                     // Do nothing
                     break;
@@ -483,6 +1718,7 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
         } catch(Exception exc) {
             err = exc.getMessage();
         }
+        tagBatcher.flush();
 
         if (err != null) {
             log("ERROR: " + err);
@@ -491,8 +1727,17 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
 
     public void stopInventory () throws Exception {
         if (active) {
-            RFIDReader rfidReader = getConnectedRFIDReader();
-            rfidReader.Actions.Inventory.stop();
+            if (sequenceRunning) {
+                sequenceRunning = false;
+                active = false;
+                try {
+                    getConnectedRFIDReader().Actions.TagAccess.OperationSequence.stopSequence();
+                } finally {
+                    flushBankReads();
+                }
+                return;
+            }
+            getBackend().stopInventory();
             active = false;
         }
     }
@@ -506,98 +1751,400 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
     // ---------
     // Inventory
     // ---------
+    private final static ArrayList<PreFilterSpec> NO_PRE_FILTERS = new ArrayList<>();
+
+    /**
+     * Tag population filter installed on the reader as a Gen2 select before inventory.
+     */
+    private static class PreFilterSpec {
+        final MEMORY_BANK memoryBank;
+        final String pattern;
+        final int bitOffset;
+
+        private PreFilterSpec(MEMORY_BANK memoryBank, String pattern, int bitOffset) {
+            this.memoryBank = memoryBank;
+            this.pattern = pattern;
+            this.bitOffset = bitOffset;
+        }
+
+        static PreFilterSpec fromConfig(ReadableMap filter) {
+            if (!filter.hasKey(PATTERN)) return null;
+            String pattern = filter.getString(PATTERN);
+            if (pattern.isEmpty()) return null;
+            MEMORY_BANK memoryBank;
+            try {
+                memoryBank = MEMORY_BANK.GetMemoryBankValue(filter.hasKey(MEMORY) ? filter.getString(MEMORY) : "epc");
+            } catch (Exception e) {
+                memoryBank = MEMORY_BANK.MEMORY_BANK_EPC;
+            }
+            int bitOffset;
+            if (filter.hasKey(OFFSET)) {
+                bitOffset = filter.getInt(OFFSET);
+            } else if (memoryBank == MEMORY_BANK.MEMORY_BANK_EPC) {
+                bitOffset = 32; // skip CRC and PC words, match from the start of the EPC
+            } else {
+                bitOffset = 0;
+            }
+            return new PreFilterSpec(memoryBank, pattern, bitOffset);
+        }
+
+        String key() {
+            return memoryBank + ":" + bitOffset + ":" + pattern;
+        }
+    }
+
     public void startInventory(ReadableMap config) throws Exception {
         if (!active) {
-            RFIDReader rfidReader = getConnectedRFIDReader();
+            ReaderBackend backend = getBackend();
+            RFIDReader rfidReader = null;
+            if (backend instanceof ZebraReaderBackend) {
+                rfidReader = ((ZebraReaderBackend) backend).reader;
+                setMetadataFields(rfidReader, configMirror, tagMetadata);
+                setPreFilters(rfidReader, preFilters);
+                if (singulationProfile != null) {
+                    setSingulation(rfidReader, singulationProfile, !preFilters.isEmpty());
+                }
+            }
+
+            if (bankReads.isEnabled() && rfidReader != null) {
+                setReadSequence(rfidReader);
+                active = true;
+                sequenceRunning = true;
+                triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+                rfidReader.Actions.TagAccess.OperationSequence.performSequence();
+                return;
+            }
+            if (bankReads.isEnabled()) {
+                log("read_banks: needs a Zebra reader, inventorying tag IDs only");
+            }
 
             active = true;
-            rfidReader.Actions.Inventory.perform(null, null, null);
+            triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+            backend.startInventory();
         }
     }
-    // -------
-    // Writing
-    // -------
-    public void write() throws Exception {
-        if (!active) {
-            RFIDReader rfidReader = getConnectedRFIDReader();
 
-            setAntennaPower(rfidReader, antennaPower);
-            setWriteConfig(rfidReader);
+    private static WritableMap bankRecord(BankReadAssembler.Record record) {
+        WritableMap map = Arguments.createMap();
+        map.putString("id", record.tagId);
+        map.putString("tid", record.tid);
+        map.putString("user", record.user);
+        if (record.tidError != null) map.putString("tidError", record.tidError);
+        if (record.userError != null) map.putString("userError", record.userError);
+        return map;
+    }
 
-            TagAccess tagAccess = new TagAccess();
-            TagAccess.WriteAccessParams writeAccessParams = tagAccess.new WriteAccessParams();
+    /**
+     * Sends the tags whose banks were not all reported before the sequence stopped. They are not
+     * counted as seen, so a complete record of the tag in a later inventory is still reported.
+     */
+    private void flushBankReads() {
+        ArrayList<BankReadAssembler.Record> incomplete = bankReads.flush();
+        // Counted per group or reconciled instead of reported, and only complete records count
+        if (incomplete.isEmpty() || aggregateBy >= 0 || manifest != null) return;
+        WritableArray records = Arguments.createArray();
+        for (BankReadAssembler.Record record : incomplete) {
+            if (uniqueInventory && inventoryTally.contains(record.tagId)) {
+                // A complete record of the tag was reported already
+                continue;
+            }
+            WritableMap map = bankRecord(record);
+            map.putBoolean("incomplete", true);
+            records.pushMap(map);
+        }
+        if (records.size() > 0) {
+            dispatchEvent("TagRecordsEvent", records);
+        }
+    }
 
-            if (memory_bank != null) {
-                writeAccessParams.setMemoryBank(memory_bank);
-                if (memory_bank == MEMORY_BANK.MEMORY_BANK_USER) {
-                    writeAccessParams.setOffset(0);
-                } else {
-                    writeAccessParams.setOffset(2);
+    private void doGetInventorySummary(Promise promise) {
+        WritableArray tags = Arguments.createArray();
+        synchronized (inventoryTally) {
+            for (int i = 0; i < inventoryTally.size(); i++) {
+                WritableMap tag = Arguments.createMap();
+                tag.putString("id", inventoryTally.getTagId(i));
+                tag.putInt("count", inventoryTally.getCount(i));
+                tag.putDouble("firstSeen", inventoryTally.getFirstSeen(i));
+                tag.putDouble("lastSeen", inventoryTally.getLastSeen(i));
+                if (inventoryTally.hasMetadata(i)) {
+                    tag.putInt("maxRssi", inventoryTally.getMaxRssi(i));
+                    tag.putDouble("avgRssi", inventoryTally.getAverageRssi(i));
+                    tag.putDouble("seenCount", inventoryTally.getSeenCount(i));
+                    tag.putInt("antenna", inventoryTally.getAntenna(i));
+                    tag.putInt("phase", inventoryTally.getPhase(i));
                 }
-            } else {
-                writeAccessParams.setMemoryBank(MEMORY_BANK.MEMORY_BANK_USER);
-                writeAccessParams.setOffset(0);
+                tags.pushMap(tag);
             }
+        }
+        promise.resolve(tags);
+    }
 
-            writeAccessParams.setAccessPassword(0);
-            writeAccessParams.setWriteData(tagData);
-            writeAccessParams.setWriteRetries(3);
-            writeAccessParams.setWriteDataLength(tagData.length() / 4);
+    private File sessionFile(String name) {
+        return new File(new File(context.getFilesDir(), SESSION_DIR), name + SESSION_SUFFIX);
+    }
 
-            AccessFilter accessFilter = new AccessFilter();
+    private void doOpenSession(String name, Promise promise) {
+        if (name == null || !name.matches("[A-Za-z0-9_-]{1,64}")) {
+            promise.reject("RFID", "openSession: invalid session name " + name);
+            return;
+        }
+        doCloseSession();
+        File file = sessionFile(name);
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            promise.reject("RFID", "openSession: cannot create " + dir);
+            return;
+        }
+        try {
+            sessionStore = SessionStore.open(name, file, System.currentTimeMillis());
+        } catch (IOException e) {
+            promise.reject("RFID", "openSession: " + e.getMessage());
+            return;
+        }
+        log("Session " + name + " opened with " + sessionStore.size() + " tags");
+        promise.resolve(sessionSummary(sessionStore));
+    }
 
-            if (filter_memory_bank != null) {
-                accessFilter.TagPatternA.setMemoryBank(filter_memory_bank);
-            } else {
-                accessFilter.TagPatternA.setMemoryBank(MEMORY_BANK.MEMORY_BANK_EPC);
+    private void doCloseSession() {
+        SessionStore store = sessionStore;
+        if (store != null) {
+            sessionStore = null;
+            store.close();
+        }
+    }
+
+    private static WritableMap sessionSummary(SessionStore store) {
+        WritableMap summary = Arguments.createMap();
+        summary.putString("name", store.name);
+        summary.putInt("tagCount", store.size());
+        summary.putDouble("reads", store.getReads());
+        summary.putDouble("created", store.getCreated());
+        summary.putDouble("updated", store.getUpdated());
+        return summary;
+    }
+
+    private void doQuerySession(ReadableMap query, Promise promise) {
+        SessionStore store = sessionStore;
+        if (store == null) {
+            promise.reject("RFID", "querySession: no session open");
+            return;
+        }
+        int offset = query != null && query.hasKey(OFFSET) ? Math.max(0, query.getInt(OFFSET)) : 0;
+        int limit = query != null && query.hasKey("limit") ? query.getInt("limit") : SESSION_PAGE_DEFAULT;
+        limit = Math.max(1, Math.min(limit, SESSION_PAGE_MAX));
+        long since = query != null && query.hasKey("since") ? (long) query.getDouble("since") : 0;
+
+        WritableArray tags = Arguments.createArray();
+        int total = store.size();
+        int index = offset;
+        int found = 0;
+        for (; index < total && found < limit; index++) {
+            long lastSeen = store.getLastSeen(index);
+            if (lastSeen < since) continue;
+            WritableMap tag = Arguments.createMap();
+            tag.putString("id", store.getTagId(index));
+            tag.putInt("count", store.getCount(index));
+            tag.putDouble("firstSeen", store.getFirstSeen(index));
+            tag.putDouble("lastSeen", lastSeen);
+            tag.putInt("maxRssi", store.getMaxRssi(index));
+            tag.putInt("antenna", store.getAntenna(index));
+            tags.pushMap(tag);
+            found++;
+        }
+        WritableMap page = sessionSummary(store);
+        page.putArray("tags", tags);
+        // Offset of the next page, equal to tagCount once the session is read to the end
+        page.putInt("next", index);
+        promise.resolve(page);
+    }
+
+    private void doListSessions(Promise promise) {
+        WritableArray list = Arguments.createArray();
+        File[] files = new File(context.getFilesDir(), SESSION_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String fileName = file.getName();
+                if (!fileName.endsWith(SESSION_SUFFIX)) continue;
+                WritableMap session = Arguments.createMap();
+                String name = fileName.substring(0, fileName.length() - SESSION_SUFFIX.length());
+                session.putString("name", name);
+                session.putDouble("size", file.length());
+                session.putDouble("modified", file.lastModified());
+                SessionStore store = sessionStore;
+                session.putBoolean("open", store != null && store.name.equals(name));
+                list.pushMap(session);
             }
-            accessFilter.TagPatternA.setTagPattern(filterTagId);
-            accessFilter.TagPatternA.setTagPatternBitCount(filterTagId.length() * 4);
-            accessFilter.TagPatternA.setBitOffset(0);
-            accessFilter.TagPatternA.setTagMask(filterTagId);
-            accessFilter.TagPatternA.setTagMaskBitCount(filterTagId.length() * 4);
-            accessFilter.setAccessFilterMatchPattern(FILTER_MATCH_PATTERN.A);
+        }
+        promise.resolve(list);
+    }
 
-            active = true;
-            rfidReader.Actions.TagAccess.writeEvent(writeAccessParams, accessFilter, null);
+    private void doDeleteSession(String name, Promise promise) {
+        if (name == null || !name.matches("[A-Za-z0-9_-]{1,64}")) {
+            promise.reject("RFID", "deleteSession: invalid session name " + name);
+            return;
         }
+        SessionStore store = sessionStore;
+        if (store != null && store.name.equals(name)) {
+            doCloseSession();
+        }
+        File file = sessionFile(name);
+        promise.resolve(file.exists() && file.delete());
+    }
+    private void clearAggregate() {
+        groupCounter.clear();
+        undecodedTags.set(0);
+    }
+
+    /**
+     * Counts a tag seen for the first time in its group, decoding on the given decoder.
+     */
+    private void aggregate(EpcDecoder decoder, String tagId, int grouping) {
+        if (decoder.decode(tagId)) {
+            groupCounter.increment(decoder.groupKey(grouping));
+        } else {
+            undecodedTags.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sends the groups whose counts changed since the last AggregateEvent.
+     */
+    private void dispatchAggregate() {
+        final WritableArray groups = Arguments.createArray();
+        groupCounter.takeChanges(new GroupCounter.Visitor() {
+            @Override
+            public void visit(long key, int count) {
+                groups.pushMap(groupEntry(key, count));
+            }
+        });
+        WritableMap event = Arguments.createMap();
+        event.putArray("groups", groups);
+        event.putInt("groupCount", groupCounter.size());
+        event.putInt("undecoded", undecodedTags.get());
+        dispatchEvent("AggregateEvent", event);
+    }
+
+    private static WritableMap groupEntry(long key, int count) {
+        StringBuilder group = new StringBuilder(16);
+        EpcDecoder.appendGroup(group, key);
+        WritableMap entry = Arguments.createMap();
+        entry.putString("type", EpcDecoder.kindName(EpcDecoder.groupKind(key)));
+        entry.putString("group", group.toString());
+        entry.putInt("count", count);
+        return entry;
+    }
+
+    private static WritableMap decodedFields(EpcDecoder decoder) {
+        WritableMap fields = Arguments.createMap();
+        StringBuilder digits = new StringBuilder(24);
+        fields.putString("scheme", EpcDecoder.schemeName(decoder.scheme));
+        fields.putInt("filter", decoder.filter);
+        EpcDecoder.appendDigits(digits, decoder.companyPrefix, decoder.companyPrefixDigits);
+        fields.putString("companyPrefix", digits.toString());
+        digits.setLength(0);
+        if (decoder.referenceDigits > 0) {
+            EpcDecoder.appendDigits(digits, decoder.reference, decoder.referenceDigits);
+        } else {
+            digits.append(decoder.reference);
+        }
+        fields.putString("reference", digits.toString());
+        digits.setLength(0);
+        decoder.appendSerial(digits);
+        if (digits.length() > 0) {
+            fields.putString("serial", digits.toString());
+        }
+        digits.setLength(0);
+        if (decoder.scheme == EpcDecoder.SGTIN_96 || decoder.scheme == EpcDecoder.SGTIN_198) {
+            EpcDecoder.appendDigits(digits, decoder.gtin(), 14);
+            fields.putString("gtin", digits.toString());
+        } else if (decoder.scheme == EpcDecoder.SSCC_96) {
+            EpcDecoder.appendDigits(digits, decoder.sscc(), 18);
+            fields.putString("sscc", digits.toString());
+        }
+        return fields;
     }
+
+    private void doGetMissing(ReadableMap query, Promise promise) {
+        ManifestReconciler reconciler = manifest;
+        if (reconciler == null) {
+            promise.reject("RFID", "getMissing: no manifest loaded");
+            return;
+        }
+        int offset = query != null && query.hasKey(OFFSET) ? Math.max(0, query.getInt(OFFSET)) : 0;
+        int limit = query != null && query.hasKey("limit") ? query.getInt("limit") : SESSION_PAGE_DEFAULT;
+        limit = Math.max(1, Math.min(limit, SESSION_PAGE_MAX));
+
+        WritableArray missing = Arguments.createArray();
+        int entry = reconciler.nextMissing(offset);
+        while (entry >= 0 && missing.size() < limit) {
+            missing.pushString(reconciler.getExpectedId(entry));
+            entry = reconciler.nextMissing(entry + 1);
+        }
+        WritableMap page = reconcileCounts(reconciler, Arguments.createMap());
+        page.putArray("missing", missing);
+        // Offset of the next page, equal to expectedCount once all missing tags are listed
+        page.putInt("next", entry >= 0 ? entry : reconciler.getExpectedCount());
+        promise.resolve(page);
+    }
+
+    private static WritableMap reconcileCounts(ManifestReconciler reconciler, WritableMap event) {
+        event.putInt("expectedCount", reconciler.getExpectedCount());
+        event.putInt("foundCount", reconciler.getFoundCount());
+        event.putInt("missingCount", reconciler.getMissingCount());
+        event.putInt("unexpectedCount", reconciler.getUnexpectedCount());
+        return event;
+    }
+
+    /**
+     * Sends the found and unexpected tags of a drain with the running counts.
+     */
+    private void dispatchReconcile(ManifestReconciler reconciler, WritableArray found, WritableArray unexpected, String reader) {
+        WritableMap event = reconcileCounts(reconciler, Arguments.createMap());
+        event.putArray("found", found);
+        event.putArray("unexpected", unexpected);
+        if (reader != null) {
+            event.putString("reader", reader);
+        }
+        dispatchEvent("ReconcileEvent", event);
+    }
+
     // -------
-    // Reading
+    // Writing
     // -------
-    public void read () throws Exception {
+    public void write() throws Exception {
         if (!active) {
             RFIDReader rfidReader = getConnectedRFIDReader();
+            AccessPlan plan = accessPlan;
+            if (plan == null || plan.writeAccessParams == null || plan.accessFilter == null || tagData == null) {
+                throw new Exception("write: filterTagId and tagData must be set");
+            }
 
+            setPreFilters(rfidReader, NO_PRE_FILTERS);
             setAntennaPower(rfidReader, antennaPower);
+            setWriteConfig(rfidReader);
 
-            TagAccess tagAccess = new TagAccess();
-            TagAccess.ReadAccessParams readAccessParams = tagAccess.new ReadAccessParams();
-
-            if (memory_bank != null) {
-                readAccessParams.setMemoryBank(memory_bank);
-            } else {
-                readAccessParams.setMemoryBank(MEMORY_BANK.MEMORY_BANK_USER);
+            active = true;
+            triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+            rfidReader.Actions.TagAccess.writeEvent(plan.writeAccessParams, plan.accessFilter, null);
+        }
+    }
+    // -------
+    // Reading
+    // -------
+    public void read () throws Exception {
+        if (!active) {
+            RFIDReader rfidReader = getConnectedRFIDReader();
+            AccessPlan plan = accessPlan;
+            if (plan == null || plan.readAccessParams == null) {
+                throw new Exception("read: mode not set");
             }
 
-            readAccessParams.setOffset(0);
-            readAccessParams.setAccessPassword(0);
-            readAccessParams.setCount(readLength);
-
-            AccessFilter accessFilter = null;
-            if (filterTagId != null && filter_memory_bank != null) {
-                accessFilter = new AccessFilter();
-                accessFilter.TagPatternA.setMemoryBank(filter_memory_bank);
-                accessFilter.TagPatternA.setTagPattern(filterTagId);
-                accessFilter.TagPatternA.setTagPatternBitCount(filterTagId.length() * 4);
-                accessFilter.TagPatternA.setBitOffset(0);
-                accessFilter.TagPatternA.setTagMask(filterTagId);
-                accessFilter.TagPatternA.setTagMaskBitCount(filterTagId.length() * 4);
-                accessFilter.setAccessFilterMatchPattern(FILTER_MATCH_PATTERN.A);
-            }
+            setPreFilters(rfidReader, NO_PRE_FILTERS);
+            setAntennaPower(rfidReader, antennaPower);
 
             active = true;
-            rfidReader.Actions.TagAccess.readEvent(readAccessParams, accessFilter, null);
+            triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+            rfidReader.Actions.TagAccess.readEvent(plan.readAccessParams, plan.accessFilter, null);
         }
 
     }
@@ -607,60 +2154,389 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
     public void permaLock() throws Exception {
         if (!active) {
             RFIDReader rfidReader = getConnectedRFIDReader();
+            AccessPlan plan = accessPlan;
+            if (plan == null || plan.lockAccessParams == null || plan.accessFilter == null) {
+                throw new Exception("permaLock: filterTagId must be set");
+            }
 
+            setPreFilters(rfidReader, NO_PRE_FILTERS);
             setAntennaPower(rfidReader, antennaPower);
 
-            TagAccess tagAccess = new TagAccess();
-            TagAccess.LockAccessParams lockAccessParams = tagAccess.new LockAccessParams();
-
-            lockAccessParams.setLockPrivilege(lock_memory, LOCK_PRIVILEGE.LOCK_PRIVILEGE_PERMA_LOCK);
-            lockAccessParams.setAccessPassword(0);
+            active = true;
+            triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+            rfidReader.Actions.TagAccess.lockEvent(plan.lockAccessParams, plan.accessFilter, null);
+        }
+    }
+    // ------
+    // Locate
+    // ------
+    public void locate() throws Exception {
+        if (!active) {
+            RFIDReader rfidReader = getConnectedRFIDReader();
+            ProximityTracker tracker = proximity;
+            if (tracker == null) {
+                throw new Exception("locate: targets must be set");
+            }
 
-            AccessFilter accessFilter = new AccessFilter();
+            setPreFilters(rfidReader, NO_PRE_FILTERS);
+            setAntennaPower(rfidReader, antennaPower);
 
-            if (filter_memory_bank != null) {
-                accessFilter.TagPatternA.setMemoryBank(filter_memory_bank);
+            tracker.reset();
+            startLocateUpdates(tracker);
+            active = true;
+            triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+            if (tracker.size() == 1) {
+                rfidReader.Actions.TagLocationing.Perform(tracker.getId(0), null, null);
             } else {
-                accessFilter.TagPatternA.setMemoryBank(MEMORY_BANK.MEMORY_BANK_EPC);
+                TagPatternBase[] patterns = new TagPatternBase[tracker.size()];
+                for (int i = 0; i < patterns.length; i++) {
+                    String id = tracker.getId(i);
+                    patterns[i] = new TagPatternBase();
+                    patterns[i].setMemoryBank(MEMORY_BANK.MEMORY_BANK_EPC);
+                    patterns[i].setTagPattern(id);
+                    patterns[i].setTagPatternBitCount(id.length() * 4);
+                    patterns[i].setBitOffset(32); // skip CRC and PC words
+                }
+                rfidReader.Actions.TagLocationing.PerformMultiLocate(patterns, new MultiLocateParams(), null);
             }
+        }
+    }
 
-            accessFilter.TagPatternA.setMemoryBank(filter_memory_bank);
-            accessFilter.TagPatternA.setTagPattern(filterTagId);
-            accessFilter.TagPatternA.setTagPatternBitCount(filterTagId.length() * 4);
-            accessFilter.TagPatternA.setBitOffset(0);
-            accessFilter.TagPatternA.setTagMask(filterTagId);
-            accessFilter.TagPatternA.setTagMaskBitCount(filterTagId.length() * 4);
-            accessFilter.setAccessFilterMatchPattern(FILTER_MATCH_PATTERN.A);
-            
-            active = true;
-            rfidReader.Actions.TagAccess.lockEvent(lockAccessParams, accessFilter, null);
+    public void stopLocate() throws Exception {
+        if (active) {
+            active = false;
+            try {
+                getConnectedRFIDReader().Actions.TagLocationing.Stop();
+            } finally {
+                stopLocateUpdates();
+            }
+        }
+    }
+
+    /**
+     * Sends the distances of the targets updated since the last LocateEvent, at most
+     * locateRate times a second.
+     */
+    private void startLocateUpdates(final ProximityTracker tracker) {
+        stopLocateUpdates();
+        final long period = 1000 / locateRate;
+        locateTask = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                // Fixed rate runs catch up after a delay, the tracker still keeps them apart
+                dispatchLocate(tracker, System.nanoTime() / 1000000, period);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopLocateUpdates() {
+        if (locateTask != null) {
+            locateTask.cancel(false);
+            locateTask = null;
+            // Last updates since the final tick
+            ProximityTracker tracker = proximity;
+            if (tracker != null) {
+                dispatchLocate(tracker, System.nanoTime() / 1000000, 0);
+            }
+        }
+    }
+
+    /**
+     * @param now current time in ms
+     * @param minInterval ms since the last LocateEvent below which nothing is sent, 0 to always
+     *                    send the last updates
+     */
+    private void dispatchLocate(ProximityTracker tracker, long now, long minInterval) {
+        final WritableArray targets = Arguments.createArray();
+        ProximityTracker.Visitor visitor = new ProximityTracker.Visitor() {
+            @Override
+            public void visit(String id, double distance, int raw, long lastSeen) {
+                WritableMap target = Arguments.createMap();
+                target.putString("id", id);
+                target.putDouble("distance", distance);
+                target.putInt("raw", raw);
+                target.putDouble("lastSeen", lastSeen);
+                targets.pushMap(target);
+            }
+        };
+        tracker.takeChanges(now, minInterval, visitor);
+        if (targets.size() == 0) return;
+        WritableMap event = Arguments.createMap();
+        event.putArray("targets", targets);
+        dispatchEvent("LocateEvent", event);
+    }
+
+    // --------------
+    // Batch encoding
+    // --------------
+    private static class EncodeJob {
+        final String tagId;
+        final String memoryBank;
+        final AccessPlan plan;
+
+        private EncodeJob(String tagId, String memoryBank, AccessPlan plan) {
+            this.tagId = tagId;
+            this.memoryBank = memoryBank;
+            this.plan = plan;
+        }
+
+        static EncodeJob fromConfig(ReadableMap job) {
+            if (!job.hasKey(FILTER_TAG_ID) || !job.hasKey(TAG_DATA)) return null;
+            String tagId = job.getString(FILTER_TAG_ID);
+            String memoryBankString = job.hasKey(MEMORY) ? job.getString(MEMORY) : "user";
+            MEMORY_BANK memoryBank;
+            try {
+                memoryBank = MEMORY_BANK.GetMemoryBankValue(memoryBankString);
+            } catch (Exception e) {
+                memoryBank = MEMORY_BANK.MEMORY_BANK_USER;
+            }
+            String data = WordPadding.pad(job.getString(TAG_DATA));
+            AccessPlan plan = AccessPlan.forWrite(null, memoryBank, data, null, null);
+            return new EncodeJob(tagId, memoryBankString, plan);
+        }
+    }
+
+    /**
+     * Writes all pending jobs back to back, addressing each tag by its ID. Jobs that succeed
+     * are removed, failed jobs stay pending for the next trigger press. Results are reported
+     * in a single EncodeEvent.
+     */
+    public void writeBatch() throws Exception {
+        if (encodeJobs.isEmpty()) {
+            log("write_batch: no pending jobs");
+            return;
+        }
+        RFIDReader rfidReader = getConnectedRFIDReader();
+
+        setPreFilters(rfidReader, NO_PRE_FILTERS);
+        setAntennaPower(rfidReader, antennaPower);
+        setWriteConfig(rfidReader);
+
+        encodeCancelled = false;
+        WritableArray results = Arguments.createArray();
+        ArrayList<EncodeJob> failed = new ArrayList<>();
+        for (int i = 0; i < encodeJobs.size(); i++) {
+            EncodeJob job = encodeJobs.get(i);
+            if (encodeCancelled) {
+                failed.add(job);
+                continue;
+            }
+            String err = null;
+            triggerTrace.mark(TriggerTrace.ISSUED, System.nanoTime());
+            try {
+                rfidReader.Actions.TagAccess.writeWait(job.tagId, job.plan.writeAccessParams, null, null);
+            } catch (InvalidUsageException e) {
+                err = "invalid usage: " + e.getMessage();
+            } catch (OperationFailureException ex) {
+                err = ex.getResults().toString().replaceAll("_", " ");
+            }
+            if (triggerTrace.isOpen()) {
+                // Batch writes complete synchronously, the first one is the first result
+                endTriggerTrace(System.nanoTime());
+            }
+            WritableMap result = Arguments.createMap();
+            result.putString("tagId", job.tagId);
+            result.putString("memoryBank", job.memoryBank);
+            result.putBoolean("success", err == null);
+            if (err != null) {
+                result.putString("error", err);
+                failed.add(job);
+            }
+            results.pushMap(result);
         }
+        encodeJobs.clear();
+        encodeJobs.addAll(failed);
+
+        WritableMap event = Arguments.createMap();
+        event.putArray("results", results);
+        event.putInt("pending", encodeJobs.size());
+        event.putBoolean("cancelled", encodeCancelled);
+        this.dispatchEvent("EncodeEvent", event);
     }
+
+    // -------
+    // Trigger
+    // -------
+    private void doTriggerPressed() {
+        String err = null;
+        try {
+            switch (rfidMode) {
+                case INVENTORY:
+                    startSessions();
+                    this.startInventory(this.config);
+                    break;
+                case READ:
+                    this.read();
+                    break;
+                case WRITE:
+                    this.write();
+                    break;
+                case PERMA_LOCK:
+                    this.permaLock();
+                    break;
+                case WRITE_BATCH:
+                    this.writeBatch();
+                    break;
+                case LOCATE:
+                    this.locate();
+                    break;
+                case NONE:
+                    // Do nothing
+                    break;
+            }
+        } catch (InvalidUsageException e) {
+            err = "read: invalid usage error on scanner read: " + e.getMessage();
+        } catch (OperationFailureException ex) {
+            err = "read: error setting up scanner read: " + ex.getResults().toString();
+        } catch (Exception exc) {
+            err = exc.getMessage();
+        }
+
+        if (err != null) {
+            Log.e("RFID", err);
+        }
+    }
+
     // -------------
     // Configuration
     // -------------
+    private void invalidateReaderConfig() {
+        configMirror.invalidate();
+        antennaRfConfig = null;
+    }
+
     private void setTriggerMode(RFIDReader reader) throws Exception {
+        if (!configMirror.differs(ReaderConfigMirror.TRIGGERS, 1)) return;
         TriggerInfo triggerInfo = new TriggerInfo();
         triggerInfo.StartTrigger.setTriggerType(START_TRIGGER_TYPE.START_TRIGGER_TYPE_IMMEDIATE);
         triggerInfo.StopTrigger.setTriggerType(STOP_TRIGGER_TYPE.STOP_TRIGGER_TYPE_IMMEDIATE);
         reader.Config.setStartTrigger(triggerInfo.StartTrigger);
         reader.Config.setStopTrigger(triggerInfo.StopTrigger);
+        configMirror.applied(ReaderConfigMirror.TRIGGERS, 1);
     }
 
     private void setAntennaPower(RFIDReader reader, int power) throws InvalidUsageException, OperationFailureException {
-        Antennas.AntennaRfConfig config = reader.Config.Antennas.getAntennaRfConfig(1);
-        config.setTransmitPowerIndex(power);
-        config.setrfModeTableIndex(0);
-        config.setTari(0);
-        reader.Config.Antennas.setAntennaRfConfig(1, config);
+        if (!configMirror.differs(ReaderConfigMirror.ANTENNA_POWER, power)
+                && !configMirror.differs(ReaderConfigMirror.RF_MODE, 0)
+                && !configMirror.differs(ReaderConfigMirror.TARI, 0)) {
+            // Already applied
+            return;
+        }
+        if (antennaRfConfig == null) {
+            antennaRfConfig = reader.Config.Antennas.getAntennaRfConfig(1);
+        }
+        antennaRfConfig.setTransmitPowerIndex(power);
+        antennaRfConfig.setrfModeTableIndex(0);
+        antennaRfConfig.setTari(0);
+        reader.Config.Antennas.setAntennaRfConfig(1, antennaRfConfig);
+        configMirror.applied(ReaderConfigMirror.ANTENNA_POWER, power);
+        configMirror.applied(ReaderConfigMirror.RF_MODE, 0);
+        configMirror.applied(ReaderConfigMirror.TARI, 0);
 
         WritableMap event = Arguments.createMap();
         event.putString("SettingsEvent", "Setting Antennas to " + power + " completed");
         this.dispatchEvent("SettingEvent", event);
     }
 
+    /**
+     * Narrows the reported tag fields to the metadata while it is enabled, and restores all
+     * fields once it is disabled. The reader is left alone until metadata is first enabled.
+     */
+    static void setMetadataFields(RFIDReader reader, ReaderConfigMirror configMirror, boolean enable) throws InvalidUsageException, OperationFailureException {
+        if (!configMirror.differs(ReaderConfigMirror.TAG_FIELDS, enable ? 1 : 0)) return;
+        if (!enable && !configMirror.isKnown(ReaderConfigMirror.TAG_FIELDS)) {
+            // Not narrowed on this connection, the reader keeps its own tag fields
+            return;
+        }
+        TagStorageSettings tagStorageSettings = reader.Config.getTagStorageSettings();
+        if (enable) {
+            tagStorageSettings.setTagFields(new TAG_FIELD[] {
+                    TAG_FIELD.PEAK_RSSI, TAG_FIELD.ANTENNA_ID, TAG_FIELD.PHASE_INFO, TAG_FIELD.TAG_SEEN_COUNT
+            });
+        } else {
+            tagStorageSettings.setTagFields(TAG_FIELD.ALL_TAG_FIELDS);
+        }
+        reader.Config.setTagStorageSettings(tagStorageSettings);
+        configMirror.applied(ReaderConfigMirror.TAG_FIELDS, enable ? 1 : 0);
+    }
+
+    /**
+     * Replaces the reader's pre-filters. The first filter selects matching tags and unselects
+     * the rest, further filters add their matches to the selection.
+     */
+    private void setPreFilters(RFIDReader reader, ArrayList<PreFilterSpec> filters) throws InvalidUsageException, OperationFailureException {
+        StringBuilder key = new StringBuilder();
+        for (PreFilterSpec filter : filters) {
+            key.append(filter.key()).append(';');
+        }
+        long hash = ReaderConfigMirror.hash(key);
+        if (!configMirror.differs(ReaderConfigMirror.PRE_FILTERS, hash)) return;
+
+        reader.Actions.PreFilters.deleteAll();
+        for (int i = 0; i < filters.size(); i++) {
+            PreFilterSpec spec = filters.get(i);
+            PreFilters.PreFilter filter = reader.Actions.PreFilters.new PreFilter();
+            filter.setAntennaID((short) 1);
+            filter.setMemoryBank(spec.memoryBank);
+            filter.setTagPattern(spec.pattern);
+            filter.setTagPatternBitCount(spec.pattern.length() * 4);
+            filter.setBitOffset(spec.bitOffset);
+            filter.setFilterAction(FILTER_ACTION.FILTER_ACTION_STATE_UNAWARE);
+            filter.StateUnawareAction.setStateUnawareAction(i == 0
+                    ? STATE_UNAWARE_ACTION.STATE_UNAWARE_ACTION_SELECT_NOT_UNSELECT
+                    : STATE_UNAWARE_ACTION.STATE_UNAWARE_ACTION_SELECT);
+            reader.Actions.PreFilters.add(filter);
+        }
+        configMirror.applied(ReaderConfigMirror.PRE_FILTERS, hash);
+        log("Pre-filters set: " + filters.size());
+    }
+
+    private void setSingulation(RFIDReader reader, SingulationProfile profile, boolean selected) throws InvalidUsageException, OperationFailureException {
+        long key = ReaderConfigMirror.hash(profile.key(selected));
+        if (!configMirror.differs(ReaderConfigMirror.SINGULATION, key)) return;
+
+        Antennas.SingulationControl singulationControl = reader.Config.Antennas.getSingulationControl(1);
+        profile.applyTo(singulationControl, selected);
+        reader.Config.Antennas.setSingulationControl(1, singulationControl);
+        configMirror.applied(ReaderConfigMirror.SINGULATION, key);
+        log("Singulation set: " + profile.name + ", population " + profile.tagPopulation);
+    }
+
+    /**
+     * Sets up the access sequence reading the requested banks of every inventoried tag.
+     */
+    private void setReadSequence(RFIDReader reader) throws InvalidUsageException, OperationFailureException {
+        boolean tid = bankReads.reads(TagRead.BANK_TID);
+        boolean user = bankReads.reads(TagRead.BANK_USER);
+        long key = ReaderConfigMirror.hash("tid:" + tid + ":" + tidLength + "|user:" + user + ":" + userOffset + ":" + userLength);
+        if (!configMirror.differs(ReaderConfigMirror.READ_SEQUENCE, key)) return;
+
+        TagAccess.Sequence sequence = reader.Actions.TagAccess.OperationSequence;
+        sequence.deleteAll();
+        if (tid) {
+            sequence.add(readOperation(sequence, MEMORY_BANK.MEMORY_BANK_TID, 0, tidLength));
+        }
+        if (user) {
+            sequence.add(readOperation(sequence, MEMORY_BANK.MEMORY_BANK_USER, userOffset, userLength));
+        }
+        configMirror.applied(ReaderConfigMirror.READ_SEQUENCE, key);
+        log("Read sequence set: tid " + tid + ", user " + user);
+    }
+
+    private static TagAccess.Sequence.Operation readOperation(TagAccess.Sequence sequence, MEMORY_BANK bank, int offset, int length) {
+        TagAccess.Sequence.Operation operation = sequence.new Operation();
+        operation.setAccessOperationCode(ACCESS_OPERATION_CODE.ACCESS_OPERATION_READ);
+        operation.ReadAccessParams.setMemoryBank(bank);
+        operation.ReadAccessParams.setOffset(offset);
+        operation.ReadAccessParams.setCount(length);
+        operation.ReadAccessParams.setAccessPassword(0);
+        return operation;
+    }
+
     private void setDPO(RFIDReader reader, boolean bEnable) throws InvalidUsageException, OperationFailureException {
-       reader.Config.setDPOState(bEnable ? DYNAMIC_POWER_OPTIMIZATION.ENABLE : DYNAMIC_POWER_OPTIMIZATION.DISABLE);
+        if (!configMirror.differs(ReaderConfigMirror.DPO, bEnable ? 1 : 0)) return;
+        reader.Config.setDPOState(bEnable ? DYNAMIC_POWER_OPTIMIZATION.ENABLE : DYNAMIC_POWER_OPTIMIZATION.DISABLE);
+        configMirror.applied(ReaderConfigMirror.DPO, bEnable ? 1 : 0);
     }
 
     private void setWriteConfig(RFIDReader reader) throws InvalidUsageException, OperationFailureException {
@@ -669,7 +2545,10 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
             setDPO(reader,false);
         }
 
-        reader.Config.setAccessOperationWaitTimeout(1000);
+        if (configMirror.differs(ReaderConfigMirror.ACCESS_TIMEOUT, ACCESS_TIMEOUT)) {
+            reader.Config.setAccessOperationWaitTimeout(ACCESS_TIMEOUT);
+            configMirror.applied(ReaderConfigMirror.ACCESS_TIMEOUT, ACCESS_TIMEOUT);
+        }
     }
 
     // -------------------
@@ -677,111 +2556,227 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
     // -------------------
     @Override
     public void eventReadNotify(RfidReadEvents rfidReadEvents) {
+        drainReads();
+    }
+
+    private void drainReads() {
         if (active) {
-            String err = null;
-            try {
-                RFIDReader rfidReader = getConnectedRFIDReader();
-                TagDataArray tagArray = rfidReader.Actions.getReadTagsEx(100);
-                if (tagArray != null) {
-                    WritableArray rfidTags = Arguments.createArray();
-                    for (int i = 0; i < tagArray.getLength(); i++) {
-                        TagData tag = tagArray.getTags()[i];
-                        String tagResultData = null;
-                        switch (rfidMode) {
-                            case NONE:
-                                break;
-                            case INVENTORY:
-                                tagResultData = tag.getTagID();
-                                break;
-                            case WRITE:
-                                if (tag != null) {
-                                    ACCESS_OPERATION_CODE readAccessOperation = tag.getOpCode();
-                                    if (readAccessOperation != null) {
-                                        if (tag.getOpStatus() != null && !tag.getOpStatus().equals(ACCESS_OPERATION_STATUS.ACCESS_SUCCESS)) {
-                                            err = tag.getOpStatus().toString().replaceAll("_", " ");
-                                            if (tag.getOpStatus()
-                                                    .equals(ACCESS_OPERATION_STATUS.ACCESS_TAG_MEMORY_LOCKED_ERROR)) {
-                                                tagResultData = "TAG LOCKED";
-                                            } else if (tag.getOpStatus()
-                                            .equals(ACCESS_OPERATION_STATUS.ACCESS_TAG_MEMORY_OVERRUN_ERROR)) {
-                                        tagResultData = "MEMORY OVERRUN";
-                                    } 
-                                            
-                                        } else {
-                                            if (tag.getOpCode() == ACCESS_OPERATION_CODE.ACCESS_OPERATION_WRITE) {
-                                                tagResultData = "WRITE SUCCESS";
-                                            } else {
-                                                err = "WRITE FAIL";
-                                            }
-                                        }
-                                    } else {
-                                        err = "ACCESS WRITE memoryBankData is null";
+            drainReads(null);
+        }
+    }
+
+    /**
+     * Fetches buffered reads from the backend until it is drained and dispatches the results.
+     * Runs on the SDK event thread, or on the scheduler for the simulated backend.
+     *
+     * Additional readers drain their inventory through here as well, on their own event threads
+     * and with their own fetch state, so their tags go through the same tally, store, manifest,
+     * aggregation, batching and binary output as the primary reader's.
+     *
+     * @param session the additional reader being drained, null for the primary reader
+     */
+    private void drainReads(ReaderSession session) {
+        long notifyTime = System.nanoTime();
+        String err = null;
+        try {
+            // Additional readers only inventory
+            ReaderBackend backend = session != null ? session.backend : getBackend();
+            String mode = session != null ? INVENTORY : rfidMode;
+            long now = System.currentTimeMillis();
+            FetchSizer sizer = session != null ? session.fetchSizer : fetchSizer;
+            TagBatchEncoder encoder = session != null ? session.tagBatchEncoder : tagBatchEncoder;
+            EpcDecoder decoder = session != null ? session.epcDecoder : epcDecoder;
+            String reader = session != null ? session.name : backend.getName();
+            boolean binary = mode.equals(INVENTORY) && binaryOutput;
+            boolean batched = !binary && mode.equals(INVENTORY) && tagBatcher.isEnabled();
+            SessionStore store = mode.equals(INVENTORY) ? sessionStore : null;
+            ManifestReconciler reconciler = mode.equals(INVENTORY) ? manifest : null;
+            int grouping = aggregateBy;
+            // Read sequences and trigger traces only run on the primary reader
+            boolean sequence = session == null && sequenceRunning;
+            boolean traced = session == null && triggerTrace.isOpen();
+            WritableArray records = null;
+            WritableArray found = null;
+            WritableArray unexpected = null;
+            WritableArray rfidTags = Arguments.createArray();
+            if (binary) {
+                encoder.begin(reader, binaryFields, now);
+            }
+            // Keep fetching until the SDK buffer is drained
+            int iterations = 0;
+            int drained = 0;
+            boolean batchedAny = false;
+            while (iterations < MAX_DRAIN_ITERATIONS) {
+                int fetchSize = sizer.get();
+                TagRead[] reads = session != null ? session.tagReads(fetchSize) : tagReads(fetchSize);
+                int length = backend.fetch(reads, fetchSize);
+                long fetchTime = System.currentTimeMillis();
+                if (length > 0 && traced) {
+                    endTriggerTrace(System.nanoTime());
+                    traced = false;
+                }
+                iterations++;
+                drained += length;
+                sizer.update(length);
+                for (int i = 0; i < length; i++) {
+                    TagRead tag = reads[i];
+                    String tagResultData = null;
+                    switch (mode) {
+                        case NONE:
+                            break;
+                        case INVENTORY:
+                            BankReadAssembler.Record record = null;
+                            if (sequence) {
+                                // Counted once all banks are read, with the last bank's metadata
+                                record = bankReads.add(tag);
+                                if (record == null) break;
+                            }
+                            tagResultData = tag.tagId;
+                            if (store != null) {
+                                store.record(tagResultData, now, tag.rssi, tag.antenna);
+                            }
+                            if (tagMetadata || uniqueInventory || grouping >= 0) {
+                                boolean firstSeen = tagMetadata
+                                        ? inventoryTally.record(tagResultData, now, tag.rssi, tag.antenna, tag.phase, tag.seenCount)
+                                        : inventoryTally.record(tagResultData, now);
+                                if (grouping >= 0) {
+                                    // Counted in its group instead of reported
+                                    if (firstSeen) {
+                                        aggregate(decoder, tag.tagId, grouping);
                                     }
-                                } else {
-                                    err = "ACCESS WRITE OPERATION FAILED";
+                                    tagResultData = null;
+                                } else if (uniqueInventory && !firstSeen) {
+                                    // Already reported in this inventory
+                                    tagResultData = null;
                                 }
-                                break;
-                            case READ:
-                                if (tag != null) {
-                                    ACCESS_OPERATION_CODE readAccessOperation = tag.getOpCode();
-                                    if (readAccessOperation != null) {
-                                        if (tag.getOpStatus() != null && !tag.getOpStatus().equals(ACCESS_OPERATION_STATUS.ACCESS_SUCCESS)) {
-                                            err = tag.getOpStatus().toString().replaceAll("_", " ");
-                                        } else {
-                                            if (tag.getOpCode() == ACCESS_OPERATION_CODE.ACCESS_OPERATION_READ) {
-                                                tagResultData = tag.getMemoryBankData();
-                                                if (readLengthOffset > 0) {
-                                                    tagResultData = tagResultData.substring(0, tagResultData.length() - readLengthOffset);
-                                                }
-                                            } else {
-                                                err = "READ FAIL";
-                                            }
-                                        }
-                                    } else {
-                                        err = "ACCESS READ memoryBankData is null";
-                                    }
-                                } else {
-                                    err = "ACCESS OPERATION FAILED";
+                            }
+                            if (reconciler != null) {
+                                // Reported as a reconcile delta instead
+                                int outcome = reconciler.record(tag.tagId);
+                                if (outcome == ManifestReconciler.FOUND) {
+                                    if (found == null) found = Arguments.createArray();
+                                    found.pushString(tag.tagId);
+                                } else if (outcome == ManifestReconciler.UNEXPECTED) {
+                                    if (unexpected == null) unexpected = Arguments.createArray();
+                                    unexpected.pushString(tag.tagId);
                                 }
-                                break;
-                            case PERMA_LOCK:
-                                if (tag != null) {
-                                    ACCESS_OPERATION_CODE readAccessOperation = tag.getOpCode();
-                                    if (readAccessOperation != null) {
-                                        if (tag.getOpStatus() != null && !tag.getOpStatus().equals(ACCESS_OPERATION_STATUS.ACCESS_SUCCESS)) {
-                                            err = tag.getOpStatus().toString().replaceAll("_", " ");
-                                        } else {
-                                            if (tag.getOpCode() == ACCESS_OPERATION_CODE.ACCESS_OPERATION_LOCK) {
-                                                tagResultData = "LOCK SUCCESS";
-                                            } else {
-                                                err = "LOCK FAIL";
-                                            }
-                                        }
-                                    } else {
-                                        err = "ACCESS LOCK memoryBankData is null";
-                                    }
-                                } else {
-                                    err = "ACCESS LOCK OPERATION FAILED";
+                                tagResultData = null;
+                            }
+                            if (record != null) {
+                                // Reported as a record with its banks instead
+                                if (tagResultData != null) {
+                                    if (records == null) records = Arguments.createArray();
+                                    records.pushMap(bankRecord(record));
                                 }
-                                break;
-                        }
-                        if (tagResultData != null) {
-                            this.dispatchEvent("TagEvent", tagResultData);
+                                tagResultData = null;
+                            }
+                            break;
+                        case WRITE:
+                            tagResultData = accessResult.write(tag);
+                            if (accessResult.error != null) err = accessResult.error;
+                            break;
+                        case READ:
+                            tagResultData = accessResult.read(tag, readLengthOffset);
+                            if (accessResult.error != null) err = accessResult.error;
+                            break;
+                        case PERMA_LOCK:
+                            tagResultData = accessResult.lock(tag);
+                            if (accessResult.error != null) err = accessResult.error;
+                            break;
+                        case LOCATE:
+                            // Distances are sent by the locate task, not per tag
+                            ProximityTracker tracker = proximity;
+                            if (tracker != null && tag.distance >= 0) {
+                                if (tracker.size() == 1) {
+                                    // Single tag locate only reports its target
+                                    tracker.update(0, tag.distance, now);
+                                } else if (tag.tagId != null) {
+                                    tracker.update(tag.tagId, tag.distance, now);
+                                }
+                            }
+                            break;
+                    }
+                    if (tagResultData != null) {
+                        if (binary) {
+                            if (encoder.isFull()) {
+                                dispatchBinaryBatch(encoder);
+                                encoder.begin(reader, binaryFields, fetchTime);
+                            }
+                            encoder.add(tagResultData, tag.rssi, tag.antenna, fetchTime);
+                        } else if (batched) {
+                            tagBatcher.add(reader, tagResultData, notifyTime);
+                            batchedAny = true;
+                        } else {
+                            if (session == null) {
+                                this.dispatchEvent("TagEvent", tagResultData);
+                            }
                             rfidTags.pushString(tagResultData);
                         }
                     }
-                    if (rfidTags.size() > 0) {
-                        this.dispatchEvent("TagsEvent", rfidTags);
-                    }
                 }
-            } catch (Exception e) {
-                err = e.getMessage();
+                if (length < fetchSize) break;
+            }
+            if (binary && encoder.getCount() > 0) {
+                dispatchBinaryBatch(encoder);
+            }
+            if (rfidTags.size() > 0) {
+                dispatchTags(reader, rfidTags);
             }
+            if (records != null) {
+                this.dispatchEvent("TagRecordsEvent", records);
+            }
+            if (grouping >= 0 && groupCounter.hasChanges()) {
+                dispatchAggregate();
+            }
+            if (found != null || unexpected != null) {
+                dispatchReconcile(reconciler,
+                        found != null ? found : Arguments.createArray(),
+                        unexpected != null ? unexpected : Arguments.createArray(), reader);
+            }
+            if (batchedAny) {
+                // Latency is recorded when the batch is dispatched
+                readerStats.recordDrain(iterations, drained);
+            } else {
+                readerStats.recordDrain(iterations, drained, (System.nanoTime() - notifyTime) / 1000);
+            }
+        } catch (Exception e) {
+            err = e.getMessage();
+        }
 
-            if (err != null) {
-                log("RFID ERROR - " + err);
+        if (err != null) {
+            log("RFID ERROR - " + err);
+        }
+    }
+
+    /**
+     * @return flyweights for a fetch of size reads, reused across fetches
+     */
+    private TagRead[] tagReads(int size) {
+        if (tagReads.length < size) {
+            TagRead[] reads = new TagRead[Math.max(size, tagReads.length * 2)];
+            System.arraycopy(tagReads, 0, reads, 0, tagReads.length);
+            for (int i = tagReads.length; i < reads.length; i++) {
+                reads[i] = new TagRead();
             }
+            tagReads = reads;
         }
+        return tagReads;
+    }
+
+    /**
+     * Sends inventory tags as { reader, tags }, for the primary and additional readers alike.
+     */
+    private void dispatchTags(String reader, WritableArray tags) {
+        WritableMap event = Arguments.createMap();
+        event.putString("reader", reader);
+        event.putArray("tags", tags);
+        this.dispatchEvent("TagsEvent", event);
+    }
+
+    private void dispatchBinaryBatch(TagBatchEncoder encoder) {
+        int length = encoder.finish();
+        String data = Base64.encodeToString(encoder.getBuffer(), 0, length, Base64.NO_WRAP);
+        this.dispatchEvent("TagsBinaryEvent", data);
     }
 
     @Override
@@ -790,62 +2785,78 @@ public abstract class RFIDScannerThread extends Thread implements RfidEventsList
         STATUS_EVENT_TYPE statusEventType = rfidStatusEvents.StatusEventData.getStatusEventType();
 
         if (statusEventType == STATUS_EVENT_TYPE.INVENTORY_START_EVENT) {
+            triggerTrace.mark(TriggerTrace.STARTED, System.nanoTime());
             event.putString("RFIDStatusEvent", "inventoryStart");
         } else if (statusEventType == STATUS_EVENT_TYPE.INVENTORY_STOP_EVENT) {
+            tagBatcher.flush();
+            post(flushSession);
             event.putString("RFIDStatusEvent", "inventoryStop");
         } else if (statusEventType == STATUS_EVENT_TYPE.DISCONNECTION_EVENT) {
             event.putString("RFIDStatusEvent", "disconnect");
             tempDisconnected = true;
+            readerStats.recordDisconnect();
         } else if (statusEventType == STATUS_EVENT_TYPE.BATCH_MODE_EVENT) {
             event.putString("RFIDStatusEvent", "batchMode" + rfidStatusEvents.StatusEventData.BatchModeEventData.toString());
         } else if (statusEventType == STATUS_EVENT_TYPE.BATTERY_EVENT) {
             event.putString("RFIDStatusEvent", "battery " + rfidStatusEvents.StatusEventData.BatteryData.getLevel());
         } else if (statusEventType == STATUS_EVENT_TYPE.HANDHELD_TRIGGER_EVENT) {
             HANDHELD_TRIGGER_EVENT_TYPE eventData = rfidStatusEvents.StatusEventData.HandheldTriggerEventData.getHandheldEvent();
-            String err = null;
             if (eventData == HANDHELD_TRIGGER_EVENT_TYPE.HANDHELD_TRIGGER_PRESSED) {
-                try {
-                    switch (rfidMode) {
-                        case INVENTORY:
-                            this.startInventory(this.config);
-                            break;
-                        case READ:
-                            if (filterTagId != null && filter_memory_bank != null) {
-                                event.putString("RFIDStatusEvent", "inventoryStart");
-                            }
-                            this.read();
-                            break;
-                        case WRITE:
-                            event.putString("RFIDStatusEvent", "inventoryStart");
-                            this.write();
-                            break;
-                        case PERMA_LOCK:
-                            this.permaLock();
-                            break;
-                        case NONE:
-                            // Do nothing
-                            break;
-                    }
-                } catch (InvalidUsageException e) {
-                    err = "read: invalid usage error on scanner read: " + e.getMessage();
-                } catch (OperationFailureException ex) {
-                    err = "read: error setting up scanner read: " + ex.getResults().toString();
-                } catch (Exception exc) {
-                    err = exc.getMessage();
-                }
-
-                if (err != null) {
-                    Log.e("RFID", err);
-                }
+                onTrigger(true);
             } else if (eventData == HANDHELD_TRIGGER_EVENT_TYPE.HANDHELD_TRIGGER_RELEASED) {
-                if (rfidMode.equals(WRITE) || rfidMode.equals(READ) && filterTagId != null && filter_memory_bank != null) {
-                    event.putString("RFIDStatusEvent", "inventoryStop");
-                }
-                this.cancel();
+                onTrigger(false);
             }
         }
         if (event.hasKey("RFIDStatusEvent")) {
             this.dispatchEvent("RFIDStatusEvent", event);
         }
     }
+
+    private void onTrigger(boolean pressed) {
+        if (pressed && !rfidMode.equals(NONE)) {
+            triggerTrace.begin(System.nanoTime());
+        }
+        if (rfidMode.equals(WRITE) || rfidMode.equals(READ) && filterTagId != null && filter_memory_bank != null) {
+            WritableMap event = Arguments.createMap();
+            event.putString("RFIDStatusEvent", pressed ? "inventoryStart" : "inventoryStop");
+            this.dispatchEvent("RFIDStatusEvent", event);
+        }
+        post(pressed ? triggerPressed : triggerReleased);
+    }
+
+    // Events of the simulated backend, mapped onto the listener callbacks above
+    private final ReaderBackend.Listener simulatedListener = new ReaderBackend.Listener() {
+        @Override
+        public void onReadNotify() {
+            drainReads();
+        }
+
+        @Override
+        public void onTrigger(boolean pressed) {
+            RFIDScannerThread.this.onTrigger(pressed);
+        }
+
+        @Override
+        public void onInventory(boolean started) {
+            if (started) {
+                triggerTrace.mark(TriggerTrace.STARTED, System.nanoTime());
+            } else {
+                tagBatcher.flush();
+                post(flushSession);
+            }
+            WritableMap event = Arguments.createMap();
+            event.putString("RFIDStatusEvent", started ? "inventoryStart" : "inventoryStop");
+            dispatchEvent("RFIDStatusEvent", event);
+        }
+
+        @Override
+        public void onDisconnect() {
+            active = false;
+            readerStats.recordDisconnect();
+            tagBatcher.flush();
+            WritableMap event = Arguments.createMap();
+            event.putString("RFIDStatusEvent", "disconnect");
+            dispatchEvent("RFIDStatusEvent", event);
+        }
+    };
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.headuck.reactnativezebrarfid;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.zebra.rfid.api3.*;
+
+/**
+ * Finds available readers, keeping one Readers instance per transport for the life of the
+ * module. Device lists are cached for a time to live, so connecting and reconnecting do not
+ * enumerate again, and can be refreshed in the background ahead of use.
+ *
+ * Background refreshes run on a thread of their own, so a slow enumeration does not hold up the
+ * scanner thread's timed tasks. Enumeration may be called from the scanner thread and the
+ * refresh thread. Each transport is synchronized on its own state, so a slow Bluetooth
+ * enumeration in the background does not hold up a connect to the serial reader.
+ */
+class ReaderDiscovery {
+
+    /**
+     * Readers instance and cached devices of one transport, guarded by itself.
+     */
+    private static final class Transport {
+        final ENUM_TRANSPORT transport;
+        Readers readers = null;
+        ArrayList<ReaderDevice> devices = null;
+        long enumerated = 0;
+
+        Transport(ENUM_TRANSPORT transport) {
+            this.transport = transport;
+        }
+    }
+
+    private final Context context;
+    private final long ttl;
+    // Background refreshes, one at a time
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor();
+
+    // One entry per transport, filled in the constructor and not modified after
+    private final EnumMap<ENUM_TRANSPORT, Transport> transports = new EnumMap<>(ENUM_TRANSPORT.class);
+    private volatile boolean disposed = false;
+
+    ReaderDiscovery(Context context, long ttl) {
+        this.context = context;
+        this.ttl = ttl;
+        for (ENUM_TRANSPORT transport : ENUM_TRANSPORT.values()) {
+            transports.put(transport, new Transport(transport));
+        }
+    }
+
+    /**
+     * @return the readers available on the transport, from the cache if it has not expired.
+     *         Empty if the transport is not supported on the device.
+     */
+    ArrayList<ReaderDevice> getDevices(ENUM_TRANSPORT transport) throws InvalidUsageException {
+        Transport state = transports.get(transport);
+        synchronized (state) {
+            if (state.devices != null && SystemClock.elapsedRealtime() - state.enumerated < ttl) {
+                return state.devices;
+            }
+            return enumerate(state);
+        }
+    }
+
+    /**
+     * Enumerates the transport in the background, so a following getDevices finds a fresh list.
+     */
+    void refresh(final ENUM_TRANSPORT transport) {
+        if (disposed) return;
+        refresher.execute(new Runnable() {
+            @Override
+            public void run() {
+                Transport state = transports.get(transport);
+                try {
+                    synchronized (state) {
+                        // Do not bring back a Readers instance after dispose
+                        if (disposed) return;
+                        enumerate(state);
+                    }
+                } catch (InvalidUsageException e) {
+                    Log.w("RFID", "Reader discovery error on " + transport + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the cached list of a transport, the next getDevices enumerates again.
+     */
+    void invalidate(ENUM_TRANSPORT transport) {
+        Transport state = transports.get(transport);
+        synchronized (state) {
+            state.devices = null;
+        }
+    }
+
+    void dispose() {
+        disposed = true;
+        // A refresh already running finishes, queued ones return without enumerating
+        refresher.shutdown();
+        for (Transport state : transports.values()) {
+            synchronized (state) {
+                if (state.readers != null) {
+                    state.readers.Dispose();
+                    state.readers = null;
+                }
+                state.devices = null;
+            }
+        }
+    }
+
+    private ArrayList<ReaderDevice> enumerate(Transport state) throws InvalidUsageException {
+        ArrayList<ReaderDevice> list;
+        try {
+            if (state.readers == null) {
+                state.readers = new Readers(context, state.transport);
+            }
+            list = state.readers.GetAvailableRFIDReaderList();
+        } catch (NullPointerException ex) {
+            Log.w("RFID", "Reader transport " + state.transport + " not supported on device");
+            list = null;
+        }
+        if (list == null) {
+            list = new ArrayList<>();
+        }
+        state.devices = list;
+        state.enumerated = SystemClock.elapsedRealtime();
+        return list;
+    }
+}
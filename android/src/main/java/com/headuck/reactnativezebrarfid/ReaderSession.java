@@ -0,0 +1,232 @@
+package com.headuck.reactnativezebrarfid;
+
+import android.util.Log;
+
+import com.zebra.rfid.api3.*;
+
+/**
+ * An additional reader connected next to the primary one, with its own events listener and mode.
+ *
+ * Sessions only inventory. They start with the primary reader's trigger as well as their own,
+ * which suits readers mounted on a cart. Read notifications are handed to the listener, which
+ * drains them through the same pipeline as the primary reader's, using the fetch flyweights,
+ * fetch size, encoder and decoder of the session. Commands run on the scanner thread; reads
+ * are drained on the SDK event thread of the session.
+ */
+class ReaderSession implements RfidEventsListener {
+
+    interface Listener {
+        void onReadNotify(ReaderSession session);
+        void onStatus(String reader, String status);
+        boolean isTagMetadata();
+        void post(Runnable command);
+    }
+
+    final String name;
+    private final ReaderDevice device;
+    private final Listener listener;
+
+    // Drain state, used on the SDK event thread of the session only
+    final ZebraReaderBackend backend;
+    final FetchSizer fetchSizer;
+    final TagBatchEncoder tagBatchEncoder = new TagBatchEncoder();
+    final EpcDecoder epcDecoder = new EpcDecoder();
+    private TagRead[] tagReads = new TagRead[0];
+
+    private final ReaderConfigMirror configMirror = new ReaderConfigMirror();
+    private volatile boolean inventoryMode = true;
+    private int antennaPower;
+    private volatile boolean active = false;
+    private boolean paused = false;
+
+    ReaderSession(ReaderDevice device, int antennaPower, FetchSizer fetchSizer, Listener listener) {
+        this.name = device.getName();
+        this.device = device;
+        this.antennaPower = antennaPower;
+        this.fetchSizer = fetchSizer;
+        this.listener = listener;
+        this.backend = new ZebraReaderBackend(device.getRFIDReader(), name);
+    }
+
+    boolean isConnected() {
+        return device.getRFIDReader().isConnected();
+    }
+
+    boolean isInventoryMode() {
+        return inventoryMode;
+    }
+
+    void connect() throws InvalidUsageException, OperationFailureException {
+        RFIDReader reader = device.getRFIDReader();
+        reader.connect();
+        configMirror.invalidate();
+        reader.Config.getDeviceStatus(true, false, false);
+        reader.Events.addEventsListener(this);
+        reader.Events.setInventoryStartEvent(true);
+        reader.Events.setInventoryStopEvent(true);
+        reader.Events.setAttachTagDataWithReadEvent(false);
+        reader.Events.setTagReadEvent(true);
+        reader.Events.setReaderDisconnectEvent(true);
+        reader.Events.setHandheldEvent(true);
+
+        TriggerInfo triggerInfo = new TriggerInfo();
+        triggerInfo.StartTrigger.setTriggerType(START_TRIGGER_TYPE.START_TRIGGER_TYPE_IMMEDIATE);
+        triggerInfo.StopTrigger.setTriggerType(STOP_TRIGGER_TYPE.STOP_TRIGGER_TYPE_IMMEDIATE);
+        reader.Config.setStartTrigger(triggerInfo.StartTrigger);
+        reader.Config.setStopTrigger(triggerInfo.StopTrigger);
+    }
+
+    void disconnect() {
+        RFIDReader reader = device.getRFIDReader();
+        try {
+            stop();
+            if (reader.Events != null) {
+                reader.Events.removeEventsListener(this);
+            }
+            if (reader.isConnected()) {
+                reader.disconnect();
+            }
+        } catch (InvalidUsageException e) {
+            Log.w("RFID", name + " disconnect: invalid usage error: " + e.getMessage());
+        } catch (OperationFailureException ex) {
+            Log.w("RFID", name + " disconnect: " + ex.getResults().toString());
+        }
+    }
+
+    /**
+     * Stops handling trigger and tag events while staying connected.
+     */
+    void pause() {
+        if (paused) return;
+        stop();
+        try {
+            device.getRFIDReader().Events.removeEventsListener(this);
+            paused = true;
+        } catch (InvalidUsageException e) {
+            Log.w("RFID", name + " pause: invalid usage error: " + e.getMessage());
+        } catch (OperationFailureException ex) {
+            Log.w("RFID", name + " pause: " + ex.getResults().toString());
+        }
+    }
+
+    /**
+     * Handles events again after pause.
+     *
+     * @return false if the reader is no longer connected and should be dropped
+     */
+    boolean resume() {
+        if (!paused) return isConnected();
+        paused = false;
+        if (!isConnected()) return false;
+        try {
+            device.getRFIDReader().Events.addEventsListener(this);
+            return true;
+        } catch (InvalidUsageException e) {
+            Log.w("RFID", name + " resume: invalid usage error: " + e.getMessage());
+        } catch (OperationFailureException ex) {
+            Log.w("RFID", name + " resume: " + ex.getResults().toString());
+        }
+        return false;
+    }
+
+    /**
+     * @param inventory true to inventory on trigger, false to ignore the trigger
+     */
+    void setMode(boolean inventory, int antennaPower) {
+        if (active) {
+            stop();
+        }
+        this.inventoryMode = inventory;
+        this.antennaPower = antennaPower;
+    }
+
+    /**
+     * @param metadata true to have RSSI, antenna, phase and seen count reported with the tags
+     */
+    void start(boolean metadata) {
+        if (!inventoryMode || active || paused || !isConnected()) return;
+        RFIDReader reader = device.getRFIDReader();
+        try {
+            RFIDScannerThread.setMetadataFields(reader, configMirror, metadata);
+            if (configMirror.differs(ReaderConfigMirror.ANTENNA_POWER, antennaPower)) {
+                Antennas.AntennaRfConfig antennaRfConfig = reader.Config.Antennas.getAntennaRfConfig(1);
+                antennaRfConfig.setTransmitPowerIndex(antennaPower);
+                antennaRfConfig.setrfModeTableIndex(0);
+                antennaRfConfig.setTari(0);
+                reader.Config.Antennas.setAntennaRfConfig(1, antennaRfConfig);
+                configMirror.applied(ReaderConfigMirror.ANTENNA_POWER, antennaPower);
+            }
+            active = true;
+            reader.Actions.Inventory.perform(null, null, null);
+        } catch (InvalidUsageException e) {
+            active = false;
+            Log.e("RFID", name + " start: invalid usage error: " + e.getMessage());
+        } catch (OperationFailureException ex) {
+            active = false;
+            Log.e("RFID", name + " start: " + ex.getResults().toString());
+        }
+    }
+
+    void stop() {
+        if (!active) return;
+        active = false;
+        try {
+            device.getRFIDReader().Actions.Inventory.stop();
+        } catch (InvalidUsageException e) {
+            Log.e("RFID", name + " stop: invalid usage error: " + e.getMessage());
+        } catch (OperationFailureException ex) {
+            Log.e("RFID", name + " stop: " + ex.getResults().toString());
+        }
+    }
+
+    @Override
+    public void eventReadNotify(RfidReadEvents rfidReadEvents) {
+        if (!active) return;
+        listener.onReadNotify(this);
+    }
+
+    /**
+     * @return flyweights for a fetch of size reads, reused across fetches
+     */
+    TagRead[] tagReads(int size) {
+        if (tagReads.length < size) {
+            TagRead[] reads = new TagRead[Math.max(size, tagReads.length * 2)];
+            System.arraycopy(tagReads, 0, reads, 0, tagReads.length);
+            for (int i = tagReads.length; i < reads.length; i++) {
+                reads[i] = new TagRead();
+            }
+            tagReads = reads;
+        }
+        return tagReads;
+    }
+
+    @Override
+    public void eventStatusNotify(RfidStatusEvents rfidStatusEvents) {
+        STATUS_EVENT_TYPE statusEventType = rfidStatusEvents.StatusEventData.getStatusEventType();
+        if (statusEventType == STATUS_EVENT_TYPE.INVENTORY_START_EVENT) {
+            listener.onStatus(name, "inventoryStart");
+        } else if (statusEventType == STATUS_EVENT_TYPE.INVENTORY_STOP_EVENT) {
+            listener.onStatus(name, "inventoryStop");
+        } else if (statusEventType == STATUS_EVENT_TYPE.DISCONNECTION_EVENT) {
+            active = false;
+            listener.onStatus(name, "disconnect");
+        } else if (statusEventType == STATUS_EVENT_TYPE.HANDHELD_TRIGGER_EVENT) {
+            HANDHELD_TRIGGER_EVENT_TYPE eventData = rfidStatusEvents.StatusEventData.HandheldTriggerEventData.getHandheldEvent();
+            if (eventData == HANDHELD_TRIGGER_EVENT_TYPE.HANDHELD_TRIGGER_PRESSED) {
+                listener.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        start(listener.isTagMetadata());
+                    }
+                });
+            } else if (eventData == HANDHELD_TRIGGER_EVENT_TYPE.HANDHELD_TRIGGER_RELEASED) {
+                listener.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        stop();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.headuck.reactnativezebrarfid;
+
+import com.zebra.rfid.api3.*;
+
+/**
+ * Named Gen2 singulation settings for inventory. The reader derives its starting Q from the
+ * tag population estimate, so the population is the knob for small versus large Q.
+ *
+ * Sessions S2 and S3 keep a tag's inventoried flag after it leaves the field, and A/B flip
+ * re-reads the population in the other target once it is exhausted. Together they let a dense
+ * population be read without the strongest tags answering every round.
+ */
+final class SingulationProfile {
+
+    static final String DEFAULT = "default";
+    static final String SINGLE = "single";
+    static final String DENSE = "dense";
+    static final String DENSE_S3 = "dense_s3";
+
+    final String name;
+    final SESSION session;
+    // Null leaves the singulation state unaware, i.e. every round targets A
+    final INVENTORY_STATE inventoryState;
+    final short tagPopulation;
+
+    private SingulationProfile(String name, SESSION session, INVENTORY_STATE inventoryState, short tagPopulation) {
+        this.name = name;
+        this.session = session;
+        this.inventoryState = inventoryState;
+        this.tagPopulation = tagPopulation;
+    }
+
+    /**
+     * @param tagPopulation population estimate overriding the profile's, 0 to keep it
+     * @return the named profile, or null if the name is unknown
+     */
+    static SingulationProfile forName(String name, int tagPopulation) {
+        SingulationProfile profile;
+        switch (name) {
+            case DEFAULT:
+                profile = new SingulationProfile(name, SESSION.SESSION_S0, null, (short) 100);
+                break;
+            case SINGLE:
+                profile = new SingulationProfile(name, SESSION.SESSION_S0, null, (short) 4);
+                break;
+            case DENSE:
+                profile = new SingulationProfile(name, SESSION.SESSION_S2, INVENTORY_STATE.INVENTORY_STATE_AB_FLIP, (short) 1000);
+                break;
+            case DENSE_S3:
+                profile = new SingulationProfile(name, SESSION.SESSION_S3, INVENTORY_STATE.INVENTORY_STATE_AB_FLIP, (short) 1000);
+                break;
+            default:
+                return null;
+        }
+        if (tagPopulation > 0) {
+            return new SingulationProfile(name, profile.session, profile.inventoryState,
+                    (short) Math.min(tagPopulation, Short.MAX_VALUE));
+        }
+        return profile;
+    }
+
+    /**
+     * @param selected true if pre-filters select the tags to inventory, which then only
+     *                 inventories tags with the SL flag asserted
+     */
+    String key(boolean selected) {
+        return name + ":" + tagPopulation + ":" + selected;
+    }
+
+    void applyTo(Antennas.SingulationControl singulationControl, boolean selected) {
+        singulationControl.setSession(session);
+        singulationControl.setTagPopulation(tagPopulation);
+        singulationControl.setTagTransitTime((short) 0);
+        if (inventoryState != null) {
+            singulationControl.Action.setPerformStateAwareSingulationAction(true);
+            singulationControl.Action.setInventoryState(inventoryState);
+            singulationControl.Action.setSLFlag(selected ? SL_FLAG.SL_FLAG_ASSERTED : SL_FLAG.SL_ALL);
+        } else {
+            singulationControl.Action.setPerformStateAwareSingulationAction(false);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.headuck.reactnativezebrarfid;
+
+import com.zebra.rfid.api3.*;
+
+/**
+ * Reader backend over a connected Zebra RFIDReader.
+ */
+class ZebraReaderBackend implements ReaderBackend {
+
+    final RFIDReader reader;
+    private final String name;
+
+    ZebraReaderBackend(RFIDReader reader, String name) {
+        this.reader = reader;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return reader.isConnected();
+    }
+
+    @Override
+    public void startInventory() throws Exception {
+        reader.Actions.Inventory.perform(null, null, null);
+    }
+
+    @Override
+    public void stopInventory() throws Exception {
+        reader.Actions.Inventory.stop();
+    }
+
+    @Override
+    public int fetch(TagRead[] reads, int max) {
+        TagDataArray tagArray = reader.Actions.getReadTagsEx(max);
+        int length = (tagArray == null) ? 0 : Math.min(tagArray.getLength(), max);
+        if (length == 0) return 0;
+        TagData[] tags = tagArray.getTags();
+        for (int i = 0; i < length; i++) {
+            copy(tags[i], reads[i]);
+        }
+        return length;
+    }
+
+    private static int bank(MEMORY_BANK memoryBank) {
+        if (memoryBank == MEMORY_BANK.MEMORY_BANK_TID) return TagRead.BANK_TID;
+        if (memoryBank == MEMORY_BANK.MEMORY_BANK_USER) return TagRead.BANK_USER;
+        if (memoryBank == MEMORY_BANK.MEMORY_BANK_EPC) return TagRead.BANK_EPC;
+        if (memoryBank == MEMORY_BANK.MEMORY_BANK_RESERVED) return TagRead.BANK_RESERVED;
+        return TagRead.BANK_NONE;
+    }
+
+    private static void copy(TagData tag, TagRead read) {
+        read.clear();
+        read.tagId = tag.getTagID();
+        read.memoryBankData = tag.getMemoryBankData();
+        read.rssi = tag.getPeakRSSI();
+        read.antenna = tag.getAntennaID();
+        read.phase = tag.getPhase();
+        read.seenCount = tag.getTagSeenCount();
+        if (tag.isContainsLocationInfo()) {
+            read.distance = tag.LocationInfo.getRelativeDistance();
+        } else if (tag.isContainsMultiTagLocateInfo()) {
+            read.distance = tag.MultiTagLocateInfo.getRelativeDistance();
+        }
+
+        ACCESS_OPERATION_CODE opCode = tag.getOpCode();
+        if (opCode == null) {
+            read.opCode = TagRead.OP_NONE;
+            return;
+        } else if (opCode == ACCESS_OPERATION_CODE.ACCESS_OPERATION_READ) {
+            read.opCode = TagRead.OP_READ;
+            read.memoryBank = bank(tag.getMemoryBank());
+        } else if (opCode == ACCESS_OPERATION_CODE.ACCESS_OPERATION_WRITE) {
+            read.opCode = TagRead.OP_WRITE;
+        } else if (opCode == ACCESS_OPERATION_CODE.ACCESS_OPERATION_LOCK) {
+            read.opCode = TagRead.OP_LOCK;
+        } else {
+            read.opCode = TagRead.OP_OTHER;
+        }
+
+        ACCESS_OPERATION_STATUS opStatus = tag.getOpStatus();
+        if (opStatus != null && !opStatus.equals(ACCESS_OPERATION_STATUS.ACCESS_SUCCESS)) {
+            read.opStatus = opStatus.toString();
+            if (opStatus.equals(ACCESS_OPERATION_STATUS.ACCESS_TAG_MEMORY_LOCKED_ERROR)) {
+                read.opError = TagRead.ERROR_MEMORY_LOCKED;
+            } else if (opStatus.equals(ACCESS_OPERATION_STATUS.ACCESS_TAG_MEMORY_OVERRUN_ERROR)) {
+                read.opError = TagRead.ERROR_MEMORY_OVERRUN;
+            } else {
+                read.opError = TagRead.ERROR_OTHER;
+            }
+        }
+    }
+}
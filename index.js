@@ -1,7 +1,7 @@
-import RFIDScanner from './lib/RFIDScanner';
+import RFIDScanner, { decodeTagBatch } from './lib/RFIDScanner';
 import { RFIDScannerEvent, RFIDScannerMode } from './lib/RFIDScannerEvent';
 import { RFIDStatusEvent } from './lib/RFIDStatusEvent';
 import { RFIDSettings } from './lib/RFIDSettings';
 
 export default RFIDScanner;
-export { RFIDScannerEvent, RFIDStatusEvent, RFIDSettings, RFIDScannerMode };
+export { RFIDScannerEvent, RFIDStatusEvent, RFIDSettings, RFIDScannerMode, decodeTagBatch };
@@ -6,6 +6,91 @@ const rfidScannerManager = NativeModules.RFIDScannerManager;
 
 let instance = null;
 
+// Binary tag batch fields, see TagBatchEncoder.java for the layout
+const FIELD_RSSI = 1;
+const FIELD_ANTENNA = 2;
+const FIELD_TIME = 4;
+
+const BASE64_CHARS = 'ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/';
+const BASE64_LOOKUP = new Uint8Array(128);
+for (let i = 0; i < BASE64_CHARS.length; i++) {
+  BASE64_LOOKUP[BASE64_CHARS.charCodeAt(i)] = i;
+}
+const HEX_CHARS = '0123456789ABCDEF';
+
+function base64ToBytes (data) {
+  let padding = 0;
+  if (data.endsWith('==')) {
+    padding = 2;
+  } else if (data.endsWith('=')) {
+    padding = 1;
+  }
+  const bytes = new Uint8Array((data.length / 4) * 3 - padding);
+  let pos = 0;
+  for (let i = 0; i < data.length; i += 4) {
+    const chunk = (BASE64_LOOKUP[data.charCodeAt(i)] << 18) |
+      (BASE64_LOOKUP[data.charCodeAt(i + 1)] << 12) |
+      (BASE64_LOOKUP[data.charCodeAt(i + 2)] << 6) |
+      BASE64_LOOKUP[data.charCodeAt(i + 3)];
+    bytes[pos++] = (chunk >> 16) & 0xFF;
+    if (pos < bytes.length) bytes[pos++] = (chunk >> 8) & 0xFF;
+    if (pos < bytes.length) bytes[pos++] = chunk & 0xFF;
+  }
+  return bytes;
+}
+
+function utf8ToString (bytes, start, end) {
+  let encoded = '';
+  for (let i = start; i < end; i++) {
+    encoded += '%' + HEX_CHARS[bytes[i] >> 4] + HEX_CHARS[bytes[i] & 0x0F];
+  }
+  return decodeURIComponent(encoded);
+}
+
+// Decodes a TagsBinaryEvent batch into { reader, tags }, with tag ID strings or
+// { id, rssi, antenna, time } objects when the batch carries extra fields
+export function decodeTagBatch (data) {
+  const bytes = base64ToBytes(data);
+  const fields = bytes[1];
+  const count = (bytes[2] << 8) | bytes[3];
+  const readerLength = bytes[4];
+  const reader = utf8ToString(bytes, 5, 5 + readerLength);
+  let pos = 5 + readerLength;
+  let baseTime = 0;
+  if (fields & FIELD_TIME) {
+    for (let i = 0; i < 8; i++) {
+      baseTime = baseTime * 256 + bytes[pos++];
+    }
+  }
+  const tags = new Array(count);
+  for (let i = 0; i < count; i++) {
+    const length = bytes[pos++];
+    let id = '';
+    for (let j = 0; j < length; j += 2) {
+      const b = bytes[pos++];
+      id += HEX_CHARS[b >> 4];
+      if (j + 1 < length) id += HEX_CHARS[b & 0x0F];
+    }
+    if (fields === 0) {
+      tags[i] = id;
+      continue;
+    }
+    const tag = { id };
+    if (fields & FIELD_RSSI) {
+      tag.rssi = (bytes[pos++] << 24) >> 24;
+    }
+    if (fields & FIELD_ANTENNA) {
+      tag.antenna = bytes[pos++];
+    }
+    if (fields & FIELD_TIME) {
+      tag.time = baseTime + ((bytes[pos] << 24) >>> 0) + (bytes[pos + 1] << 16) + (bytes[pos + 2] << 8) + bytes[pos + 3];
+      pos += 4;
+    }
+    tags[i] = tag;
+  }
+  return { reader, tags };
+}
+
 export class RFIDScanner {
   constructor () {
     if (!instance) {
@@ -18,8 +103,16 @@ export class RFIDScanner {
 
       DeviceEventEmitter.addListener('TagEvent', this.handleTagEvent.bind(this));
       DeviceEventEmitter.addListener('TagsEvent', this.handleTagsEvent.bind(this));
+      DeviceEventEmitter.addListener('TagsBinaryEvent', this.handleTagsBinaryEvent.bind(this));
       DeviceEventEmitter.addListener('RFIDStatusEvent', this.handleStatusEvent.bind(this));
       DeviceEventEmitter.addListener('SettingEvent', this.handleSettingEvent.bind(this));
+      DeviceEventEmitter.addListener('EncodeEvent', this.handleEncodeEvent.bind(this));
+      DeviceEventEmitter.addListener('StatsEvent', this.handleStatsEvent.bind(this));
+      DeviceEventEmitter.addListener('TriggerLatencyEvent', this.handleTriggerLatencyEvent.bind(this));
+      DeviceEventEmitter.addListener('ReconcileEvent', this.handleReconcileEvent.bind(this));
+      DeviceEventEmitter.addListener('AggregateEvent', this.handleAggregateEvent.bind(this));
+      DeviceEventEmitter.addListener('LocateEvent', this.handleLocateEvent.bind(this));
+      DeviceEventEmitter.addListener('TagRecordsEvent', this.handleTagRecordsEvent.bind(this));
     }
   }
 
@@ -27,7 +120,7 @@ export class RFIDScanner {
     // console.log('RFIDStatusEvent', event.RFIDStatusEvent);
     if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.STATUS)) {
       this.oncallbacks[RFIDScannerEvent.STATUS].forEach((callback) => {
-        callback(event.RFIDStatusEvent);
+        callback(event.RFIDStatusEvent, event);
       });
     }
   }
@@ -41,6 +134,62 @@ export class RFIDScanner {
     }
   }
 
+  handleEncodeEvent (event) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.ENCODE)) {
+      this.oncallbacks[RFIDScannerEvent.ENCODE].forEach((callback) => {
+        callback(event);
+      });
+    }
+  }
+
+  handleStatsEvent (stats) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.STATS)) {
+      this.oncallbacks[RFIDScannerEvent.STATS].forEach((callback) => {
+        callback(stats);
+      });
+    }
+  }
+
+  handleTagRecordsEvent (records) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.TAG_RECORDS)) {
+      this.oncallbacks[RFIDScannerEvent.TAG_RECORDS].forEach((callback) => {
+        callback(records);
+      });
+    }
+  }
+
+  handleLocateEvent (event) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.LOCATE)) {
+      this.oncallbacks[RFIDScannerEvent.LOCATE].forEach((callback) => {
+        callback(event.targets);
+      });
+    }
+  }
+
+  handleAggregateEvent (event) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.AGGREGATE)) {
+      this.oncallbacks[RFIDScannerEvent.AGGREGATE].forEach((callback) => {
+        callback(event);
+      });
+    }
+  }
+
+  handleReconcileEvent (event) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.RECONCILE)) {
+      this.oncallbacks[RFIDScannerEvent.RECONCILE].forEach((callback) => {
+        callback(event);
+      });
+    }
+  }
+
+  handleTriggerLatencyEvent (latency) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.TRIGGER_LATENCY)) {
+      this.oncallbacks[RFIDScannerEvent.TRIGGER_LATENCY].forEach((callback) => {
+        callback(latency);
+      });
+    }
+  }
+
   handleTagEvent (tag) {
     if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.TAG)) {
       this.oncallbacks[RFIDScannerEvent.TAG].forEach((callback) => {
@@ -49,10 +198,20 @@ export class RFIDScanner {
     }
   }
 
-  handleTagsEvent (tags) {
+  handleTagsEvent (event) {
+    if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.TAGS)) {
+      const { reader, tags } = event;
+      this.oncallbacks[RFIDScannerEvent.TAGS].forEach((callback) => {
+        callback(tags, reader);
+      });
+    }
+  }
+
+  handleTagsBinaryEvent (data) {
     if (this.oncallbacks.hasOwnProperty(RFIDScannerEvent.TAGS)) {
+      const { reader, tags } = decodeTagBatch(data);
       this.oncallbacks[RFIDScannerEvent.TAGS].forEach((callback) => {
-        callback(tags);
+        callback(tags, reader);
       });
     }
   }
@@ -61,6 +220,26 @@ export class RFIDScanner {
     rfidScannerManager.init();
   }
 
+  getReaders () {
+    return rfidScannerManager.getReaders();
+  }
+
+  connectReader (name) {
+    return rfidScannerManager.connectReader(name);
+  }
+
+  disconnectReader (name) {
+    rfidScannerManager.disconnectReader(name);
+  }
+
+  setReaderMode (name, mode, config = {}) {
+    rfidScannerManager.setReaderMode(name, mode, config);
+  }
+
+  initSimulated (config = {}) {
+    rfidScannerManager.initSimulated(config);
+  }
+
   setMode (mode, config = {}) {
     if (rfidScannerManager != null) {
         rfidScannerManager.setMode(mode, config);
@@ -71,10 +250,86 @@ export class RFIDScanner {
     rfidScannerManager.reconnect();
   }
 
+  setKeepAlive (idleTimeout) {
+    rfidScannerManager.setKeepAlive(idleTimeout);
+  }
+
+  refreshReaders () {
+    rfidScannerManager.refreshReaders();
+  }
+
+  cancelConnect () {
+    rfidScannerManager.cancelConnect();
+  }
+
   cancel () {
     rfidScannerManager.cancel();
   }
 
+  setDispatchPolicy (policy) {
+    rfidScannerManager.setDispatchPolicy(policy);
+  }
+
+  getInventorySummary () {
+    return rfidScannerManager.getInventorySummary();
+  }
+
+  clearInventory () {
+    rfidScannerManager.clearInventory();
+  }
+
+  decodeEpcs (ids) {
+    return rfidScannerManager.decodeEpcs(ids);
+  }
+
+  getAggregate () {
+    return rfidScannerManager.getAggregate();
+  }
+
+  loadManifest (ids) {
+    return rfidScannerManager.loadManifest(ids);
+  }
+
+  clearManifest () {
+    rfidScannerManager.clearManifest();
+  }
+
+  getMissing (query) {
+    return rfidScannerManager.getMissing(query || {});
+  }
+
+  openSession (name) {
+    return rfidScannerManager.openSession(name);
+  }
+
+  closeSession () {
+    rfidScannerManager.closeSession();
+  }
+
+  querySession (query) {
+    return rfidScannerManager.querySession(query || {});
+  }
+
+  listSessions () {
+    return rfidScannerManager.listSessions();
+  }
+
+  deleteSession (name) {
+    return rfidScannerManager.deleteSession(name);
+  }
+
+  getStats () {
+    return rfidScannerManager.getStats();
+  }
+
+  resetStats () {
+    rfidScannerManager.resetStats();
+  }
+
+  setStatsInterval (interval) {
+    rfidScannerManager.setStatsInterval(interval);
+  }
+
   shutdown () {
     rfidScannerManager.shutdown();
   }
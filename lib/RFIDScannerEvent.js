@@ -1,8 +1,15 @@
 export const RFIDScannerEvent = {
   TAG: 'tag',
   TAGS: 'tags',
+  TAG_RECORDS: 'tagRecords',
   STATUS: 'status',
   SETTING: 'setting',
+  ENCODE: 'encode',
+  STATS: 'stats',
+  TRIGGER_LATENCY: 'triggerLatency',
+  RECONCILE: 'reconcile',
+  AGGREGATE: 'aggregate',
+  LOCATE: 'locate',
   ERROR: 'error',
 };
 
@@ -11,5 +18,7 @@ export const RFIDScannerMode = {
   READ: 'read',
   WRITE: 'write',
   PERMA_LOCK: 'perma_lock',
+  WRITE_BATCH: 'write_batch',
+  LOCATE: 'locate',
   NONE: 'none'
 }
\ No newline at end of file
@@ -6,6 +6,42 @@ export const RFIDSettings = {
   READ_LENGTH: 'read_length',
   LOCK_MEMORY: 'lock_memory',
   ANTENNA_POWER: 'antenna_power',
+  UNIQUE: 'unique',
+  FLUSH_INTERVAL: 'flush_interval',
+  FLUSH_MAX_TAGS: 'flush_max_tags',
+  FETCH_MIN: 'fetch_min',
+  FETCH_MAX: 'fetch_max',
+  OUTPUT_FORMAT: 'output_format',
+  BINARY_FIELDS: 'binary_fields',
+  TAG_METADATA: 'tag_metadata',
+  JOBS: 'jobs',
+  PRE_FILTERS: 'prefilters',
+  PATTERN: 'pattern',
+  OFFSET: 'offset',
+  SINGULATION: 'singulation',
+  TAG_POPULATION: 'tag_population',
+  AGGREGATE: 'aggregate',
+  TARGETS: 'targets',
+  LOCATE_RATE: 'locate_rate',
+  SMOOTHING: 'smoothing',
+  READ_BANKS: 'read_banks',
+  TID_LENGTH: 'tid_length',
+  USER_OFFSET: 'user_offset',
+  USER_LENGTH: 'user_length',
+
+  FORMAT_STRING: 'string',
+  FORMAT_BINARY: 'binary',
+  FIELD_RSSI: 'rssi',
+  FIELD_ANTENNA: 'antenna',
+  FIELD_TIME: 'time',
+
+  SINGULATION_DEFAULT: 'default',
+  SINGULATION_SINGLE: 'single',
+  SINGULATION_DENSE: 'dense',
+  SINGULATION_DENSE_S3: 'dense_s3',
+
+  AGGREGATE_GTIN: 'gtin',
+  AGGREGATE_COMPANY_PREFIX: 'company_prefix',
 
   USER_MEMORY: 'user',
   EPC_MEMORY: 'epc',
@@ -14,5 +50,9 @@ export const RFIDSettings = {
 
   LOCK_ACCESS_PASSWORD: 'lock_password',
   LOCK_USER_MEMORY: 'lock_user_memory',
-  LOCK_EPC_MEMORY: 'lock_epc_memory'
+  LOCK_EPC_MEMORY: 'lock_epc_memory',
+
+  DISPATCH_BLOCK: 'block',
+  DISPATCH_DROP_OLDEST: 'drop_oldest',
+  DISPATCH_DROP_NEWEST: 'drop_newest'
 }
\ No newline at end of file
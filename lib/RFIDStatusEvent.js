@@ -1,6 +1,7 @@
 export const RFIDStatusEvent = {
   OPENED: 'opened',
   CLOSED: 'closed',
+  CONNECT_FAILED: 'connectFailed',
   DISCONNECT: 'disconnect',
   BATCH_MODE: 'batchmode',
   BATTERY: 'battery',
@@ -8,4 +9,5 @@ export const RFIDStatusEvent = {
   INVENTORY_STOP: 'inventoryStop',
   WRITE_START: 'writeStart',
   WRITE_STOP: 'writeStop',
+  DROPPED: 'dropped',
 }
\ No newline at end of file